@@ -47,12 +47,31 @@ POST /predict
   ]
 }
 
+--- 5. Batch Prediction (POST /predict/batch) ---
+Send many camps in one request; the model runs once over a single DataFrame.
+{
+  "items": [
+    { "camp_id": "c1", "disaster_type": "Flood", ..., "longitude": 93.1711 },
+    { "camp_id": "c2", "disaster_type": "Flood", ..., "longitude": 93.1811 }
+  ]
+}
+Response:
+{
+  "results": [
+    { "camp_id": "c1", "requirements": {...}, "risk_score": 60.0, ... },
+    { "camp_id": "c2", "requirements": {...}, "risk_score": 45.0, ... }
+  ]
+}
+
 =============================================================================
 """
 
+from typing import List, Optional
+
+import hashlib
 import joblib
 import pandas as pd
-from fastapi import FastAPI
+from fastapi import FastAPI, HTTPException
 from pydantic import BaseModel
 import logging
 import sys
@@ -83,6 +102,12 @@ try:
     
     # Load the trained XGBoost MultiOutputRegressor model
     model = joblib.load('idro_requirement_model.pkl')
+
+    # Model version = content hash of the model file.
+    # Clients cache predictions per version and drop them when this changes.
+    with open('idro_requirement_model.pkl', 'rb') as f:
+        MODEL_VERSION = hashlib.sha256(f.read()).hexdigest()[:12]
+    logger.info(f"Model version: {MODEL_VERSION}")
     logger.info("✅ Model 'idro_requirement_model.pkl' loaded successfully")
     
     # ============================================================
@@ -220,7 +245,14 @@ def generate_explanation(severity: str, urgency: str, affected_count: int, injur
 
 @app.get("/")
 def read_root():
-    return {"message": "IDRO AI Prediction Service is Running"}
+    return {"message": "IDRO AI Prediction Service is Running", "model_version": MODEL_VERSION}
+
+@app.get("/version")
+def read_version():
+    """
+    Returns the loaded model version so clients can invalidate cached predictions.
+    """
+    return {"model_version": MODEL_VERSION}
 
 def fallback_prediction(affected_count: int) -> dict:
     """
@@ -249,6 +281,45 @@ class DisasterInput(BaseModel):
     latitude: float
     longitude: float
 
+class BatchDisasterInput(DisasterInput):
+    camp_id: Optional[str] = None
+
+class BatchPredictionRequest(BaseModel):
+    items: List[BatchDisasterInput]
+
+# Target columns list (Order MUST match training)
+TARGET_COLUMNS = [
+    'food_packets_per_day',
+    'water_liters_per_day',
+    'medical_kits_required',
+    'beds_required',
+    'blankets_required',
+    'toilets_required',
+    'power_units_required',
+    'ambulances_required',
+    'volunteers_required'
+]
+
+FEATURE_COLUMNS = [
+    'disaster_type',
+    'severity',
+    'urgency',
+    'affected_count',
+    'injured_count',
+    'missing_count',
+    'latitude',
+    'longitude'
+]
+
+def is_known_category(item: DisasterInput) -> bool:
+    """
+    Returns True if every categorical value is known to the FROZEN encoders.
+    """
+    for col in ['disaster_type', 'severity', 'urgency']:
+        if col in encoders and getattr(item, col) not in encoders[col].classes_:
+            return False
+    return True
+
 # --- Prediction Endpoint ---
 @app.post("/predict")
 def predict_requirements(data: DisasterInput):
@@ -415,3 +486,73 @@ def predict_requirements(data: DisasterInput):
     
     logger.info(f"Prediction successful. Risk Score: {risk_score}")
     return response
+
+# --- Batch Prediction Endpoint ---
+@app.post("/predict/batch")
+def predict_requirements_batch(batch: BatchPredictionRequest):
+    """
+    Predicts relief resource requirements for many camps in one call.
+
+    Workflow:
+    1. Validate every item (same rules as /predict).
+    2. Split items into known categories (ML) and unseen categories (Fallback).
+    3. Build ONE DataFrame for all ML rows and encode each column once.
+    4. Run model.predict() once over the whole frame.
+    5. Return one result per item, in request order, tagged with its camp_id.
+    """
+
+    items = batch.items
+    logger.info(f"Received batch prediction request for {len(items)} items")
+
+    if model is None:
+        logger.critical("Model not loaded.")
+        raise HTTPException(status_code=503, detail="Model not loaded. Please contact administrator.")
+
+    for item in items:
+        if item.affected_count < 0 or item.injured_count < 0 or item.missing_count < 0:
+            logger.warning(f"Validation failed: Negative counts in batch item {item.camp_id}.")
+            raise HTTPException(status_code=400, detail="Counts (affected, injured, missing) must be non-negative.")
+
+    requirements = [None] * len(items)
+    sources = ["Fallback"] * len(items)
+
+    ml_rows = [i for i, item in enumerate(items) if is_known_category(item)]
+
+    if ml_rows:
+        try:
+            input_df = pd.DataFrame(
+                [{col: getattr(items[i], col) for col in FEATURE_COLUMNS} for i in ml_rows],
+                columns=FEATURE_COLUMNS)
+
+            # Encode categorical features using FROZEN encoders (transform only)
+            for col in ['disaster_type', 'severity', 'urgency']:
+                input_df[col] = encoders[col].transform(input_df[col])
+
+            predictions = model.predict(input_df)
+
+            for row, i in enumerate(ml_rows):
+                requirements[i] = {
+                    target: int(round(float(predictions[row][t])))
+                    for t, target in enumerate(TARGET_COLUMNS)
+                }
+                sources[i] = "ML"
+
+        except Exception as e:
+            logger.error(f"Batch ML Prediction failed: {str(e)}. Using fallback rules.")
+
+    results = []
+    for i, item in enumerate(items):
+        if requirements[i] is None:
+            requirements[i] = fallback_prediction(item.affected_count)
+            sources[i] = "Fallback"
+
+        results.append({
+            "camp_id": item.camp_id,
+            "requirements": requirements[i],
+            "risk_score": calculate_risk_score(item.severity, item.urgency, item.affected_count),
+            "explanation": generate_explanation(item.severity, item.urgency, item.affected_count, item.injured_count),
+            "prediction_source": sources[i]
+        })
+
+    logger.info(f"Batch prediction successful. {len(ml_rows)} ML rows, {len(items) - len(ml_rows)} fallback rows")
+    return {"results": results}
@@ -0,0 +1,90 @@
+package com.india.idro.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Dedicated executor for per-camp impact analysis.
+ * 
+ * Keeps blocking ML/Mongo work off ForkJoinPool.commonPool() so a large
+ * mission cannot starve every other async task in the JVM.
+ * 
+ * Metrics (via /actuator/metrics):
+ * - executor.active / executor.queued / executor.pool.size {name=impactAnalysis}
+ * - idro.analysis.executor.rejected
+ */
+@Configuration
+public class AnalysisExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisExecutorConfig.class);
+
+    @Value("${idro.analysis.executor.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${idro.analysis.executor.pool-size:16}")
+    private int poolSize;
+
+    @Value("${idro.analysis.executor.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${idro.analysis.executor.rejection-policy:CALLER_RUNS}")
+    private String rejectionPolicy;
+
+    @Bean(name = "impactAnalysisExecutor", destroyMethod = "shutdown")
+    public ExecutorService impactAnalysisExecutor(MeterRegistry meterRegistry) {
+        ExecutorService executor;
+
+        if (virtualThreads) {
+            executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("impact-analysis-", 0).factory());
+            logger.info("Impact analysis executor: virtual threads");
+        } else {
+            Counter rejected = Counter.builder("idro.analysis.executor.rejected")
+                    .description("Camp analysis tasks rejected because the queue was full")
+                    .register(meterRegistry);
+
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    poolSize, poolSize,
+                    60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    new CustomizableThreadFactory("impact-analysis-"),
+                    countingRejections(resolveRejectionPolicy(), rejected));
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+
+            logger.info("Impact analysis executor: pool={}, queue={}, rejection={}",
+                    poolSize, queueCapacity, rejectionPolicy);
+        }
+
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "impactAnalysis");
+    }
+
+    private RejectedExecutionHandler resolveRejectionPolicy() {
+        if ("ABORT".equalsIgnoreCase(rejectionPolicy)) {
+            return new ThreadPoolExecutor.AbortPolicy();
+        }
+        return new ThreadPoolExecutor.CallerRunsPolicy();
+    }
+
+    private static RejectedExecutionHandler countingRejections(RejectedExecutionHandler delegate, Counter rejected) {
+        return (task, pool) -> {
+            rejected.increment();
+            delegate.rejectedExecution(task, pool);
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.india.idro.config;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.model.Filters;
+
+/**
+ * Backfills geoPoint on camps and alerts stored before the 2dsphere index
+ * existed. Idempotent: only documents with valid coordinates and no geoPoint
+ * are touched, so it is cheap once every document has been migrated.
+ */
+@Component
+public class GeoPointMigration implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeoPointMigration.class);
+
+    private static final List<String> COLLECTIONS = List.of("camps", "alerts");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        Bson missingPoint = Filters.and(
+                Filters.exists("geoPoint", false),
+                Filters.gte("latitude", -90), Filters.lte("latitude", 90),
+                Filters.gte("longitude", -180), Filters.lte("longitude", 180));
+
+        // Pipeline update: geoPoint is built server-side from each document's own fields
+        List<Document> setPoint = List.of(new Document("$set", new Document("geoPoint",
+                new Document("type", "Point").append("coordinates", List.of("$longitude", "$latitude")))));
+
+        for (String collection : COLLECTIONS) {
+            try {
+                long updated = mongoTemplate.getCollection(collection)
+                        .updateMany(missingPoint, setPoint)
+                        .getModifiedCount();
+                if (updated > 0) {
+                    logger.info("🌍 Backfilled geoPoint on {} {}", updated, collection);
+                }
+            } catch (Exception e) {
+                logger.error("❌ geoPoint backfill failed for {}: {}", collection, e.getMessage());
+            }
+        }
+    }
+}
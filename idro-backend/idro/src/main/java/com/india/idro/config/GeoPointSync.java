@@ -0,0 +1,26 @@
+package com.india.idro.config;
+
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import com.india.idro.model.Alert;
+import com.india.idro.model.Camp;
+import com.india.idro.model.GeoPoints;
+
+/**
+ * Derives the 2dsphere-indexed geoPoint of camps and alerts from their
+ * latitude/longitude on every save, so callers only ever set the two doubles.
+ */
+@Component
+public class GeoPointSync extends AbstractMongoEventListener<Object> {
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Object> event) {
+        if (event.getSource() instanceof Camp camp) {
+            camp.setGeoPoint(GeoPoints.of(camp.getLatitude(), camp.getLongitude()));
+        } else if (event.getSource() instanceof Alert alert) {
+            alert.setGeoPoint(GeoPoints.of(alert.getLatitude(), alert.getLongitude()));
+        }
+    }
+}
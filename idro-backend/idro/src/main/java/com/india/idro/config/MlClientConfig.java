@@ -0,0 +1,125 @@
+package com.india.idro.config;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Shared HTTP client for the FastAPI ML server.
+ * 
+ * One persistent, keep-alive connection pool is used by both
+ * MlPredictionService and AiPredictionService, so a mission fan-out reuses
+ * a handful of TCP connections instead of opening one per request.
+ * 
+ * A non-blocking WebClient (Reactor Netty) is also provided for the reactive
+ * prediction path, with its own bounded pool and the same timeouts.
+ * 
+ * Pool occupancy is exposed via /actuator/metrics as
+ * httpcomponents.httpclient.pool.* {httpclient=ml-server} and
+ * reactor.netty.connection.provider.* {name=ml-server}.
+ */
+@Configuration
+public class MlClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(MlClientConfig.class);
+
+    @Value("${idro.ml.http.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${idro.ml.http.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${idro.ml.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${idro.ml.http.read-timeout-ms:30000}")
+    private long readTimeoutMs;
+
+    @Value("${idro.ml.http.pool-acquire-timeout-ms:2000}")
+    private long poolAcquireTimeoutMs;
+
+    @Value("${idro.ml.http.keep-alive-seconds:4}")
+    private long keepAliveSeconds;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager mlConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "ml-server").bindTo(meterRegistry);
+
+        logger.info("ML HTTP pool initialized - max: {}, per route: {}, keep-alive: {}s",
+                maxConnections, maxConnectionsPerRoute, keepAliveSeconds);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient mlHttpClient(PoolingHttpClientConnectionManager mlConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(mlConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                // Keep below uvicorn's --timeout-keep-alive so we never reuse a socket it closed
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofSeconds(keepAliveSeconds))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate mlRestTemplate(CloseableHttpClient mlHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(mlHttpClient));
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider mlConnectionProvider() {
+        return ConnectionProvider.builder("ml-server")
+                .maxConnections(maxConnectionsPerRoute)
+                .pendingAcquireTimeout(Duration.ofMillis(poolAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(keepAliveSeconds))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient mlWebClient(WebClient.Builder builder, ConnectionProvider mlConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(mlConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
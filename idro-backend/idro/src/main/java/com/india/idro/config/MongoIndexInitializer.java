@@ -0,0 +1,64 @@
+package com.india.idro.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import com.india.idro.model.ResourceAvailability;
+import com.india.idro.repository.CampAiPredictionRepository;
+import com.india.idro.repository.CoordinationMessageRepository;
+
+/**
+ * Creates indexes that cannot be declared with annotations because existing
+ * data must be cleaned up first (auto-index-creation would fail on duplicates),
+ * and drops indexes that an annotated index has replaced.
+ */
+@Component
+public class MongoIndexInitializer implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    // Superseded by resourceKey_available_quantity_ownerStatus
+    private static final String REPLACED_AVAILABILITY_INDEX = "resourceKey_available_quantity";
+
+    @Autowired
+    private CampAiPredictionRepository predictionRepository;
+
+    @Autowired
+    private CoordinationMessageRepository coordinationRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            predictionRepository.ensureMissionCampIndex();
+            logger.info("✅ Camp prediction (missionId, campId) unique index ready");
+        } catch (Exception e) {
+            logger.error("❌ Failed to create camp prediction index: {}", e.getMessage());
+        }
+
+        try {
+            coordinationRepository.ensureSequenceIndex();
+            logger.info("✅ Coordination message sequence unique index ready");
+        } catch (Exception e) {
+            logger.error("❌ Failed to create coordination sequence index: {}", e.getMessage());
+        }
+
+        try {
+            IndexOperations availabilityIndexes = mongoTemplate.indexOps(ResourceAvailability.class);
+            if (availabilityIndexes.getIndexInfo().stream()
+                    .anyMatch(index -> REPLACED_AVAILABILITY_INDEX.equals(index.getName()))) {
+                availabilityIndexes.dropIndex(REPLACED_AVAILABILITY_INDEX);
+                logger.info("🗑️ Dropped replaced index {}", REPLACED_AVAILABILITY_INDEX);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Failed to drop index {}: {}", REPLACED_AVAILABILITY_INDEX, e.getMessage());
+        }
+    }
+}
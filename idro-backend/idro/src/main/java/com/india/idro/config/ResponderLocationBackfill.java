@@ -0,0 +1,76 @@
+package com.india.idro.config;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+
+/**
+ * Backfills latitude/longitude on responders stored before they had
+ * coordinates, for the cities the demo accounts are seeded in. Responders
+ * without coordinates are skipped by nearest-responder matching; any other
+ * responder sets its base location through the location endpoints
+ * (PUT /api/ngo/location, /api/government/{agencyId}/location,
+ * /api/volunteer/{volunteerId}/location).
+ *
+ * Idempotent: only documents without a latitude are touched. Runs before the
+ * matching index is loaded (on ApplicationReadyEvent), so it sees the result.
+ */
+@Component
+public class ResponderLocationBackfill implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponderLocationBackfill.class);
+
+    // Collection -> field holding the responder's city
+    private static final Map<String, String> CITY_FIELDS = Map.of(
+            "ngos", "city",
+            "government_agencies", "location",
+            "volunteers", "location");
+
+    // City -> [latitude, longitude], as used by the demo seeders
+    private static final Map<String, double[]> CITY_COORDINATES = Map.of(
+            "Mumbai", new double[] { 19.076, 72.8777 },
+            "Delhi", new double[] { 28.6139, 77.209 },
+            "New Delhi", new double[] { 28.6139, 77.209 },
+            "Bangalore", new double[] { 12.9716, 77.5946 },
+            "Chennai", new double[] { 13.0827, 80.2707 },
+            "Kolkata", new double[] { 22.5726, 88.3639 });
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        CITY_FIELDS.forEach((collection, cityField) -> {
+            try {
+                long updated = 0;
+                for (Map.Entry<String, double[]> city : CITY_COORDINATES.entrySet()) {
+                    updated += mongoTemplate.getCollection(collection)
+                            .updateMany(
+                                    Filters.and(Filters.exists("latitude", false), Filters.eq(cityField, city.getKey())),
+                                    Updates.combine(
+                                            Updates.set("latitude", city.getValue()[0]),
+                                            Updates.set("longitude", city.getValue()[1])))
+                            .getModifiedCount();
+                }
+                if (updated > 0) {
+                    logger.info("📍 Backfilled coordinates on {} {}", updated, collection);
+                }
+                long missing = mongoTemplate.getCollection(collection).countDocuments(Filters.exists("latitude", false));
+                if (missing > 0) {
+                    logger.warn("⚠️ {} {} have no coordinates and will not be matched until their location is set",
+                            missing, collection);
+                }
+            } catch (Exception e) {
+                logger.error("❌ coordinate backfill failed for {}: {}", collection, e.getMessage());
+            }
+        });
+    }
+}
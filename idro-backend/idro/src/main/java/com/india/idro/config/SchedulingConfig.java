@@ -0,0 +1,32 @@
+package com.india.idro.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Scheduler for the application's @Scheduled jobs.
+ * 
+ * Spring Boot only auto-configures "taskScheduler" when no other
+ * TaskScheduler bean exists, and the STOMP configuration always registers
+ * messageBrokerTaskScheduler. Declaring it here keeps @Scheduled jobs off the
+ * broker's scheduler and applies spring.task.scheduling.* (pool size, thread
+ * name prefix), so a blocking job such as the ML health probe cannot delay
+ * the coalescer, coordination flush or snapshot refresh.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulingConfig.class);
+
+    // Picked by @Scheduled over other TaskScheduler beans because of its name
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        ThreadPoolTaskScheduler scheduler = builder.build();
+        logger.info("⏱️ @Scheduled pool size: {}", scheduler.getPoolSize());
+        return scheduler;
+    }
+}
@@ -0,0 +1,48 @@
+package com.india.idro.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+
+/**
+ * Backfills version = 0 on documents stored before their entity gained an
+ * {@code @Version} field. Spring Data treats a null version as a new entity,
+ * so saving a loaded legacy document would otherwise attempt an insert and
+ * fail with a duplicate key. Idempotent and runs before the other seeders.
+ */
+@Component
+@Order(0)
+public class VersionMigration implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VersionMigration.class);
+
+    private static final List<String> COLLECTIONS = List.of("alerts", "camps");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        for (String collection : COLLECTIONS) {
+            try {
+                long updated = mongoTemplate.getCollection(collection)
+                        .updateMany(Filters.exists("version", false), Updates.set("version", 0L))
+                        .getModifiedCount();
+                if (updated > 0) {
+                    logger.info("🔢 Backfilled version on {} {}", updated, collection);
+                }
+            } catch (Exception e) {
+                logger.error("❌ version backfill failed for {}: {}", collection, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.india.idro.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Exposes the STOMP inbound/outbound channel executors via /actuator/metrics
+ * (executor.queued, executor.active, executor.pool.size, ... tagged
+ * name=websocketInbound / websocketOutbound), so queue depth is visible
+ * before clients start getting evicted.
+ *
+ * The channel executor beans are declared as TaskExecutor; only pooled
+ * executors have a queue to report.
+ */
+@Component
+public class WebSocketChannelMetrics {
+
+    public WebSocketChannelMetrics(MeterRegistry meterRegistry,
+            @Qualifier("clientInboundChannelExecutor") TaskExecutor inboundExecutor,
+            @Qualifier("clientOutboundChannelExecutor") TaskExecutor outboundExecutor) {
+        bind(meterRegistry, inboundExecutor, "websocketInbound");
+        bind(meterRegistry, outboundExecutor, "websocketOutbound");
+    }
+
+    private static void bind(MeterRegistry meterRegistry, TaskExecutor executor, String name) {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            new ExecutorServiceMetrics(pool.getThreadPoolExecutor(), name, List.<Tag>of()).bindTo(meterRegistry);
+        }
+    }
+}
@@ -1,24 +1,193 @@
 package com.india.idro.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+import com.india.idro.service.MongoChangeStreamListener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * STOMP over WebSocket configuration.
+ *
+ * Broker modes (idro.websocket.broker.mode):
+ * - simple: in-memory broker; subscriptions live in this JVM only (single node)
+ * - relay: forward /topic and /queue to an external STOMP broker (RabbitMQ,
+ * ActiveMQ Artemis, ...) so a message published on any node reaches clients
+ * connected to every node behind the load balancer
+ *
+ * Relay mode cannot be combined with idro.realtime.source=change-stream:
+ * every node would publish every database change to the shared broker, so
+ * clients would get one copy per node. Startup fails instead. Replay via
+ * GET /api/changes is served from the answering node's own buffer, so
+ * resuming without a reset only works when clients reach the node whose
+ * epoch they track (single node, or sticky sessions).
+ *
+ * Backpressure: inbound/outbound channel pools and queues are bounded, and
+ * each session has a send buffer and send time limit; a browser that cannot
+ * keep up is disconnected instead of stalling broadcasts to everyone else.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
-public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
+
+    @Value("${idro.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${idro.realtime.source:write-path}")
+    private String realtimeSource;
+
+    // Relay connection (only used in relay mode)
+    @Value("${idro.websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${idro.websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${idro.websocket.broker.relay.client-login:guest}")
+    private String clientLogin;
+
+    @Value("${idro.websocket.broker.relay.client-passcode:guest}")
+    private String clientPasscode;
+
+    @Value("${idro.websocket.broker.relay.system-login:guest}")
+    private String systemLogin;
+
+    @Value("${idro.websocket.broker.relay.system-passcode:guest}")
+    private String systemPasscode;
+
+    @Value("${idro.websocket.broker.relay.virtual-host:}")
+    private String virtualHost;
+
+    // Heartbeats: broker -> client send interval and expected client -> broker interval
+    @Value("${idro.websocket.broker.heartbeat.send-ms:10000}")
+    private long heartbeatSendMs;
+
+    @Value("${idro.websocket.broker.heartbeat.receive-ms:10000}")
+    private long heartbeatReceiveMs;
+
+    // Threads delivering broker messages to client sessions
+    @Value("${idro.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${idro.websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${idro.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    // Threads handling messages FROM clients (/app/** and subscriptions)
+    @Value("${idro.websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${idro.websocket.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+
+    @Value("${idro.websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    // Per-session limits; exceeding either evicts the session as a slow consumer
+    @Value("${idro.websocket.transport.send-buffer-size-limit-bytes:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${idro.websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${idro.websocket.transport.message-size-limit-bytes:65536}")
+    private int messageSizeLimit;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Simple broker heartbeats need a scheduler; kept private so it does not
+    // replace the application's @Scheduled task scheduler
+    private ThreadPoolTaskScheduler heartbeatScheduler;
+
+    @PostConstruct
+    public void validateBrokerMode() {
+        if ("relay".equalsIgnoreCase(brokerMode) && MongoChangeStreamListener.SOURCE.equals(realtimeSource)) {
+            throw new IllegalStateException("idro.websocket.broker.mode=relay cannot be used with "
+                    + "idro.realtime.source=change-stream: every node would publish every change to the shared "
+                    + "broker. Use idro.realtime.source=write-path with the relay.");
+        }
+    }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            // External broker shared by all nodes
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(clientLogin)
+                    .setClientPasscode(clientPasscode)
+                    .setSystemLogin(systemLogin)
+                    .setSystemPasscode(systemPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatSendMs)
+                    .setSystemHeartbeatReceiveInterval(heartbeatReceiveMs);
+            if (!virtualHost.isBlank()) {
+                relay.setVirtualHost(virtualHost);
+            }
+            logger.info("📡 STOMP broker relay: {}:{}", relayHost, relayPort);
+        } else {
+            // Enable a simple memory-based message broker
+            heartbeatScheduler = new ThreadPoolTaskScheduler();
+            heartbeatScheduler.setPoolSize(1);
+            heartbeatScheduler.setThreadNamePrefix("ws-heartbeat-");
+            heartbeatScheduler.initialize();
+
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[] { heartbeatSendMs, heartbeatReceiveMs })
+                    .setTaskScheduler(heartbeatScheduler);
+            logger.info("📡 STOMP simple (in-memory) broker");
+        }
+
+        // Keep per-session delivery order on the pooled outbound channel (change events are sequenced)
+        config.setPreservePublishOrder(true);
 
         // Prefix for messages FROM client TO server
         config.setApplicationDestinationPrefixes("/app");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(new WebSocketSessionMetrics(meterRegistry));
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // WebSocket endpoint for coordination chat
@@ -39,4 +208,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 )
                 .withSockJS();
     }
-}
\ No newline at end of file
+
+    @Override
+    public void destroy() {
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdown();
+        }
+    }
+}
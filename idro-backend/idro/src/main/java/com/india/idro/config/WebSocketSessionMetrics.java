@@ -0,0 +1,63 @@
+package com.india.idro.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tracks WebSocket sessions for /actuator/metrics:
+ * - idro.websocket.sessions.active: currently open sessions
+ * - idro.websocket.sessions.evicted: sessions closed as slow consumers
+ *
+ * A session whose outbound buffer exceeds the send buffer size limit, or
+ * whose send blocks longer than the send time limit, is terminated by Spring
+ * with SESSION_NOT_RELIABLE so it cannot hold up broadcasts to others.
+ */
+public class WebSocketSessionMetrics implements WebSocketHandlerDecoratorFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketSessionMetrics.class);
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Counter evictedSessions;
+
+    public WebSocketSessionMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("idro.websocket.sessions.active", activeSessions, AtomicInteger::get)
+                .description("Open WebSocket sessions")
+                .register(meterRegistry);
+        this.evictedSessions = Counter.builder("idro.websocket.sessions.evicted")
+                .description("WebSocket sessions closed for exceeding send buffer or send time limits")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                activeSessions.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                activeSessions.decrementAndGet();
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    evictedSessions.increment();
+                    logger.warn("🐢 Evicted slow WebSocket session {}: {}", session.getId(), closeStatus.getReason());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.india.idro.controller;
 import com.india.idro.model.Action;
 import com.india.idro.repository.ActionRepository;
 import com.india.idro.repository.AlertRepository;
+import com.india.idro.service.ChangeEventPublisher;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +23,9 @@ public class ActionController {
     @Autowired
     private AlertRepository alertRepository; // ✅ FIXED: Now properly injected
 
+    @Autowired
+    private ChangeEventPublisher changePublisher;
+
     // GET all actions
     @GetMapping
     public List<Action> getAllActions() {
@@ -48,6 +52,7 @@ public class ActionController {
                     }
 
                     Action saved = actionRepository.save(action);
+                    changePublisher.created(ChangeEventPublisher.ACTION, saved.getId(), saved);
                     return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -1,8 +1,11 @@
 package com.india.idro.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,8 +17,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.india.idro.exception.BadRequestException;
+import com.india.idro.exception.ConflictException;
+import com.india.idro.exception.ResourceNotFoundException;
 import com.india.idro.model.Alert;
+import com.india.idro.model.GeoPoints;
 import com.india.idro.repository.AlertRepository; // ✅ Import this
+import com.india.idro.service.ChangeEventPublisher;
 
 @RestController
 @RequestMapping("/api/alerts")
@@ -26,6 +34,10 @@ public class AlertController {
     @Autowired
     private AlertRepository alertRepository;
 
+    // Pushes alert deltas to /topic/alerts
+    @Autowired
+    private ChangeEventPublisher changePublisher;
+
     // 1. Get All Alerts
     @GetMapping
     public List<Alert> getAllAlerts() {
@@ -45,13 +57,19 @@ public class AlertController {
         if (alert.getMissionStatus() == null) {
             alert.setMissionStatus("OPEN");
         }
-        return alertRepository.save(alert);
+        Alert saved = alertRepository.save(alert);
+        changePublisher.created(ChangeEventPublisher.ALERT, saved.getId(), saved);
+        return saved;
     }
 
     // 3. Update Existing Alert
+    // Send back the "version" from your last read: the save only matches that version,
+    // so an alert changed in between (e.g. assigned) gives 409 instead of being overwritten.
+    // Without a version, missionStatus and responderName are left as stored.
     @PutMapping("/{id}")
     public Alert updateAlert(@PathVariable String id, @RequestBody Alert alert) {
         return alertRepository.findById(id).map(existingAlert -> {
+            Map<String, Object> before = changePublisher.snapshot(existingAlert);
             // Update fields
             existingAlert.setType(alert.getType());
             existingAlert.setColor(alert.getColor());
@@ -62,39 +80,73 @@ public class AlertController {
             existingAlert.setImpact(alert.getImpact());
             existingAlert.setDetails(alert.getDetails());
             existingAlert.setTime(alert.getTime());
-            existingAlert.setMissionStatus(alert.getMissionStatus());
             existingAlert.setTrustScore(alert.getTrustScore());
             existingAlert.setReporterLevel(alert.getReporterLevel());
             existingAlert.setSourceType(alert.getSourceType());
             existingAlert.setAffectedCount(alert.getAffectedCount());
             existingAlert.setInjuredCount(alert.getInjuredCount());
-            existingAlert.setResponderName(alert.getResponderName());
             existingAlert.setUrgency(alert.getUrgency());
-            return alertRepository.save(existingAlert);
+            if (alert.getVersion() != null) {
+                existingAlert.setMissionStatus(alert.getMissionStatus());
+                existingAlert.setResponderName(alert.getResponderName());
+                existingAlert.setVersion(alert.getVersion());
+            }
+            Alert saved = alertRepository.save(existingAlert);
+            changePublisher.updated(ChangeEventPublisher.ALERT, id, before, saved);
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Alert not found"));
     }
 
+    // GET /api/alerts/near?lat=10.5&lon=76.2&radiusKm=100  (nearest first)
+    @GetMapping("/near")
+    public List<Alert> getAlertsNear(@RequestParam double lat, @RequestParam double lon,
+            @RequestParam(defaultValue = "100") double radiusKm, @RequestParam(defaultValue = "100") int limit) {
+        GeoJsonPoint point = GeoPoints.of(lat, lon);
+        if (point == null || radiusKm <= 0) {
+            throw new BadRequestException("Invalid coordinates or radius");
+        }
+        return alertRepository.findNear(point, radiusKm * 1000, PageRequest.of(0, Math.max(1, Math.min(limit, 500))));
+    }
+
+    // GET /api/alerts/within?minLat=8&minLon=74&maxLat=13&maxLon=78  (map viewport)
+    @GetMapping("/within")
+    public List<Alert> getAlertsWithinBox(@RequestParam double minLat, @RequestParam double minLon,
+            @RequestParam double maxLat, @RequestParam double maxLon) {
+        return alertRepository.findWithinBox(minLat, minLon, maxLat, maxLon);
+    }
+
+    // POST /api/alerts/within  body: [[lon, lat], [lon, lat], ...]
+    @PostMapping("/within")
+    public List<Alert> getAlertsWithinPolygon(@RequestBody List<double[]> coordinates) {
+        return alertRepository.findWithin(GeoPoints.polygon(coordinates));
+    }
+
     // 3. Delete Alert
     @DeleteMapping("/{id}")
     public void deleteAlert(@PathVariable String id) {
-        if (!alertRepository.existsById(id)) {
-            throw new RuntimeException("Alert not found");
-        }
+        Alert existing = alertRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Alert not found"));
         alertRepository.deleteById(id);
+        changePublisher.deleted(ChangeEventPublisher.ALERT, id, existing);
     }
 
     // ✅ 4. NEW: Assign Mission (Locks the task for an NGO)
+    // One conditional findAndModify: concurrent callers race on the server and losers get 409
     @PutMapping("/{id}/assign")
     public Alert assignMission(@PathVariable String id, @RequestParam String responderName) {
-        return alertRepository.findById(id).map(alert -> {
-            // CRITICAL: Prevent Duplication
-            if (!"OPEN".equals(alert.getMissionStatus()) && alert.getMissionStatus() != null) {
-                throw new RuntimeException("Mission already taken by " + alert.getResponderName());
-            }
+        Alert previous = alertRepository.assignIfOpen(id, responderName);
+        if (previous == null) {
+            // CRITICAL: Prevent Duplication (only hit on the losing path)
+            Alert current = alertRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Alert", "id", id));
+            throw new ConflictException("Mission already taken by " + current.getResponderName());
+        }
 
-            alert.setMissionStatus("ASSIGNED");
-            alert.setResponderName(responderName);
-            return alertRepository.save(alert);
-        }).orElseThrow(() -> new RuntimeException("Alert not found"));
+        Map<String, Object> before = changePublisher.snapshot(previous);
+        previous.setMissionStatus("ASSIGNED");
+        previous.setResponderName(responderName);
+        previous.setVersion(previous.getVersion() != null ? previous.getVersion() + 1 : 1L);
+        changePublisher.updated(ChangeEventPublisher.ALERT, id, before, previous);
+        return previous;
     }
 }
\ No newline at end of file
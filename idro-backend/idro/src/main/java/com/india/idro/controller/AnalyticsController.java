@@ -1,9 +1,12 @@
 package com.india.idro.controller;
 
+import com.india.idro.dto.DashboardSnapshot;
 import com.india.idro.model.Alert;
 import com.india.idro.repository.AlertRepository;
 import com.india.idro.service.AnalyticsService;
+import com.india.idro.service.DashboardSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,6 +23,9 @@ public class AnalyticsController {
     @Autowired
     private AlertRepository alertRepository;
 
+    @Autowired
+    private DashboardSnapshotService snapshotService;
+
     @GetMapping("/impact/{id}")
     public ResponseEntity<Map<String, Object>> getImpact(@PathVariable String id) {
         // ✅ SAFER LOGIC: Returns 404 if ID is wrong, instead of crashing with RuntimeException
@@ -28,13 +34,23 @@ public class AnalyticsController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Served from the in-memory snapshot. Spring answers a matching If-None-Match
+    // with 304 and no body; no-cache makes browsers revalidate instead of guessing
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
-        return ResponseEntity.ok(analyticsService.getDashboardStats());
+        DashboardSnapshot snapshot = snapshotService.current();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.statsEtag())
+                .body(snapshot.stats());
     }
 
     @GetMapping("/prediction")
     public ResponseEntity<Map<String, String>> getPrediction() {
-        return ResponseEntity.ok(analyticsService.predictNextThreat());
+        DashboardSnapshot snapshot = snapshotService.current();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.predictionEtag())
+                .body(snapshot.prediction());
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.india.idro.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.india.idro.dto.PageResponse;
 import com.india.idro.model.Camp;
 import com.india.idro.model.Stock;
 import com.india.idro.model.enums.CampStatus;
@@ -7,9 +9,11 @@ import com.india.idro.repository.CampRepository;
 import com.india.idro.service.CampService;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -21,6 +25,7 @@ public class CampController {
 
     private final CampService campService;
     private final CampRepository campRepository;
+    private final ObjectMapper objectMapper;
 
     // GET /api/camps
     @GetMapping
@@ -28,6 +33,46 @@ public class CampController {
         return ResponseEntity.ok(campService.getAllCamps());
     }
 
+    // GET /api/camps/page?cursor=...&size=50  (keyset pagination, urgency DESC)
+    @GetMapping("/page")
+    public ResponseEntity<PageResponse<Camp>> getCampPage(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(campService.getCampPage(null, cursor, size));
+    }
+
+    // GET /api/camps/stream  (NDJSON, one camp per line, urgency DESC)
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamCamps() {
+        return NdjsonResponses.of(objectMapper, () -> campService.streamCamps(null));
+    }
+
+    // GET /api/camps/near?lat=10.5&lon=76.2&radiusKm=25&limit=100  (nearest first)
+    @GetMapping("/near")
+    public ResponseEntity<List<Camp>> getCampsNear(@RequestParam double lat, @RequestParam double lon,
+            @RequestParam(defaultValue = "25") double radiusKm, @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(campService.getCampsNear(lat, lon, radiusKm, limit));
+    }
+
+    // GET /api/camps/near-alert/{alertId}?radiusKm=50
+    @GetMapping("/near-alert/{alertId}")
+    public ResponseEntity<List<Camp>> getCampsNearAlert(@PathVariable String alertId,
+            @RequestParam(defaultValue = "50") double radiusKm, @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(campService.getCampsNearAlert(alertId, radiusKm, limit));
+    }
+
+    // GET /api/camps/within?minLat=8&minLon=74&maxLat=13&maxLon=78  (map viewport)
+    @GetMapping("/within")
+    public ResponseEntity<List<Camp>> getCampsWithinBox(@RequestParam double minLat, @RequestParam double minLon,
+            @RequestParam double maxLat, @RequestParam double maxLon) {
+        return ResponseEntity.ok(campService.getCampsWithinBox(minLat, minLon, maxLat, maxLon));
+    }
+
+    // POST /api/camps/within  body: [[lon, lat], [lon, lat], ...]
+    @PostMapping("/within")
+    public ResponseEntity<List<Camp>> getCampsWithinPolygon(@RequestBody List<double[]> coordinates) {
+        return ResponseEntity.ok(campService.getCampsWithinPolygon(coordinates));
+    }
+
     // GET /api/camps/{id}
     @GetMapping("/{id}")
     public ResponseEntity<Camp> getCampById(@PathVariable String id) {
@@ -80,11 +125,27 @@ public class CampController {
         return ResponseEntity.ok(campRepository.findByAlertId(alertId));
     }
 
-    // PUT /api/camps/{id}
+    // GET /api/camps/by-alert/{alertId}/page?cursor=...&size=50
+    @GetMapping("/by-alert/{alertId}/page")
+    public ResponseEntity<PageResponse<Camp>> getCampPageByAlert(@PathVariable String alertId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(campService.getCampPage(alertId, cursor, size));
+    }
+
+    // GET /api/camps/by-alert/{alertId}/stream  (NDJSON)
+    @GetMapping("/by-alert/{alertId}/stream")
+    public ResponseEntity<StreamingResponseBody> streamCampsByAlert(@PathVariable String alertId) {
+        return NdjsonResponses.of(objectMapper, () -> campService.streamCamps(alertId));
+    }
+
+    // PUT /api/camps/{id}  (include "version" from the last read to get 409 on a concurrent change)
     @PutMapping("/{id}")
     public ResponseEntity<Camp> updateCamp(@PathVariable String id, @RequestBody Camp camp) {
         try {
             return ResponseEntity.ok(campService.updateCamp(id, camp));
+        } catch (OptimisticLockingFailureException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,38 @@
+package com.india.idro.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.india.idro.dto.ChangeFeedResponse;
+import com.india.idro.service.ChangeEventPublisher;
+
+/**
+ * Lets WebSocket clients catch up on change events they missed
+ * (reconnect or a gap in sequence numbers).
+ */
+@RestController
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "*")
+public class ChangeFeedController {
+
+    @Autowired
+    private ChangeEventPublisher changePublisher;
+
+    /**
+     * GET /api/changes?since=42&epoch=...[&mission=alertId][&tile=8/183/110]
+     * Events with seq > since, or resetRequired=true if they are no longer available.
+     * mission/tile limit the replay to what a scoped topic subscriber receives.
+     */
+    @GetMapping
+    public ResponseEntity<ChangeFeedResponse> getChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) String epoch,
+            @RequestParam(required = false) String mission,
+            @RequestParam(required = false) String tile) {
+        return ResponseEntity.ok(changePublisher.since(since, epoch, mission, tile));
+    }
+}
@@ -0,0 +1,37 @@
+package com.india.idro.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.india.idro.dto.PageResponse;
+import com.india.idro.model.CoordinationMessage;
+import com.india.idro.service.CoordinationLogService;
+
+/**
+ * Coordination chat history for clients (re)joining /topic/coordination.
+ */
+@RestController
+@RequestMapping("/api/coordination")
+@CrossOrigin(origins = "*")
+public class CoordinationController {
+
+    @Autowired
+    private CoordinationLogService coordinationLog;
+
+    /**
+     * GET /api/coordination/messages?since=42&limit=100
+     * Messages with sequence > since, oldest first; pass nextCursor as the
+     * next "since" until it is null.
+     */
+    @GetMapping("/messages")
+    public ResponseEntity<PageResponse<CoordinationMessage>> getMessages(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(coordinationLog.since(since, limit));
+    }
+}
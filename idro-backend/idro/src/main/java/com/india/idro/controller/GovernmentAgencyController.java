@@ -14,6 +14,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.india.idro.exception.BadRequestException;
+import com.india.idro.model.GeoPoints;
 import com.india.idro.model.GovernmentAgency;
 import com.india.idro.model.ResourceItem;
 import com.india.idro.model.enums.AvailabilityStatus;
@@ -90,6 +92,27 @@ public class GovernmentAgencyController {
         }
     }
 
+    // PUT /api/government/{agencyId}/location  body: { latitude, longitude }  (base for responder matching)
+    @PutMapping("/{agencyId}/location")
+    public ResponseEntity<?> updateLocation(
+            @PathVariable String agencyId,
+            @RequestBody Map<String, Double> request) {
+
+        Double latitude = request.get("latitude");
+        Double longitude = request.get("longitude");
+        if (GeoPoints.of(latitude, longitude) == null) {
+            throw new BadRequestException("Invalid latitude/longitude");
+        }
+
+        GovernmentAgency updatedAgency = agencyService.updateLocation(agencyId, latitude, longitude);
+
+        if (updatedAgency != null) {
+            return ResponseEntity.ok(updatedAgency);
+        } else {
+            return ResponseEntity.status(404).body("Agency not found");
+        }
+    }
+
     @PutMapping("/{agencyId}/resources")
     public ResponseEntity<?> updateResources(
             @PathVariable String agencyId,
@@ -1,13 +1,17 @@
 package com.india.idro.controller;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.india.idro.service.ImpactAnalysisService;
@@ -23,18 +27,24 @@ public class ImpactAnalysisController {
     private ImpactAnalysisService impactAnalysisService;
 
     /**
-     * GET /api/impact-analysis/{missionId}
+     * GET /api/impact-analysis/{missionId}?full=false
      * Fetches AI-driven impact analysis for a specific mission/disaster.
+     * Only camps changed since their last prediction are recomputed unless full=true.
      */
     @GetMapping("/{missionId}")
-    public ResponseEntity<?> getMissionImpact(@PathVariable String missionId) {
+    public ResponseEntity<?> getMissionImpact(@PathVariable String missionId,
+            @RequestParam(defaultValue = "false") boolean full) {
         logger.info("Received request for impact analysis of mission ID: {}", missionId);
 
         try {
             com.india.idro.dto.ImpactAnalysisResponseDTO analysis = impactAnalysisService
-                    .analyzeMissionImpact(missionId);
+                    .analyzeMissionImpact(missionId, full);
             return ResponseEntity.ok(analysis);
 
+        } catch (RejectedExecutionException e) {
+            logger.warn("Impact analysis capacity exhausted for mission {}", missionId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Analysis capacity exhausted, please retry shortly");
         } catch (RuntimeException e) {
             logger.error("Error analyzing mission {}: {}", missionId, e.getMessage());
             if (e.getMessage().contains("Mission not found")) {
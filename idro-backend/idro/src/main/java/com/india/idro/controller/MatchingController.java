@@ -0,0 +1,49 @@
+package com.india.idro.controller;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.india.idro.dto.ResponderMatch;
+import com.india.idro.service.matching.ResponderMatchingService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Ranked responder suggestions (NGOs, agencies, volunteers) for dispatch.
+ */
+@RestController
+@RequestMapping("/api/matching")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MatchingController {
+
+    private final ResponderMatchingService matchingService;
+
+    // GET /api/matching/missions/{alertId}?k=10&maxDistanceKm=300&types=NGO,AGENCY&needs=medical,food
+    @GetMapping("/missions/{alertId}")
+    public ResponseEntity<List<ResponderMatch>> matchForMission(@PathVariable String alertId,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(defaultValue = "300") double maxDistanceKm,
+            @RequestParam(required = false) Set<String> types,
+            @RequestParam(required = false) List<String> needs) {
+        return ResponseEntity.ok(matchingService.matchForMission(alertId, k, maxDistanceKm, types, needs));
+    }
+
+    // GET /api/matching/camps/{campId}?k=10&maxDistanceKm=100&needs=medical
+    @GetMapping("/camps/{campId}")
+    public ResponseEntity<List<ResponderMatch>> matchForCamp(@PathVariable String campId,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(defaultValue = "100") double maxDistanceKm,
+            @RequestParam(required = false) Set<String> types,
+            @RequestParam(required = false) List<String> needs) {
+        return ResponseEntity.ok(matchingService.matchForCamp(campId, k, maxDistanceKm, types, needs));
+    }
+}
@@ -1,19 +1,28 @@
 package com.india.idro.controller;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.india.idro.dto.PageResponse;
 import com.india.idro.model.Camp;
 import com.india.idro.repository.CampRepository;
+import com.india.idro.service.CampService;
 
 import java.util.List;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 @RestController
 @RequestMapping("/api/mission")
 @CrossOrigin
 public class MissionController {
 
     private final CampRepository campRepository;
+    private final CampService campService;
+    private final ObjectMapper objectMapper;
 
-    public MissionController(CampRepository campRepository) {
+    public MissionController(CampRepository campRepository, CampService campService, ObjectMapper objectMapper) {
         this.campRepository = campRepository;
+        this.campService = campService;
+        this.objectMapper = objectMapper;
     }
 
     // This will power your Mission Control page
@@ -21,4 +30,17 @@ public class MissionController {
     public List<Camp> getAllVolunteerCamps() {
         return campRepository.findAll();
     }
+
+    // Paged variant for large deployments: /api/mission/camps/page?cursor=...&size=50
+    @GetMapping("/camps/page")
+    public PageResponse<Camp> getVolunteerCampPage(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return campService.getCampPage(null, cursor, size);
+    }
+
+    // Streaming variant (NDJSON, one camp per line)
+    @GetMapping("/camps/stream")
+    public ResponseEntity<StreamingResponseBody> streamVolunteerCamps() {
+        return NdjsonResponses.of(objectMapper, () -> campService.streamCamps(null));
+    }
 }
@@ -0,0 +1,49 @@
+package com.india.idro.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.india.idro.model.MissionResourceGap;
+import com.india.idro.service.MissionGapService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Supply-vs-demand gaps per mission and resource, read from the
+ * materialized mission_resource_gaps table.
+ */
+@RestController
+@RequestMapping("/api/gaps")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MissionGapController {
+
+    private final MissionGapService gapService;
+
+    // GET /api/gaps/missions/{missionId}  (largest shortfall first)
+    @GetMapping("/missions/{missionId}")
+    public ResponseEntity<List<MissionResourceGap>> getMissionGaps(@PathVariable String missionId) {
+        return ResponseEntity.ok(gapService.getMissionGaps(missionId));
+    }
+
+    // GET /api/gaps?minGap=1  (unmet demand across all missions)
+    @GetMapping
+    public ResponseEntity<List<MissionResourceGap>> getUnmetDemand(@RequestParam(defaultValue = "1") long minGap) {
+        return ResponseEntity.ok(gapService.getUnmetDemand(minGap));
+    }
+
+    // POST /api/gaps/missions/{missionId}/refresh  (recompute now instead of on the next cycle)
+    @PostMapping("/missions/{missionId}/refresh")
+    public ResponseEntity<List<MissionResourceGap>> refreshMission(@PathVariable String missionId) {
+        gapService.refreshNow(missionId);
+        return ResponseEntity.ok(gapService.getMissionGaps(missionId));
+    }
+}
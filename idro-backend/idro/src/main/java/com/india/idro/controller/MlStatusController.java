@@ -0,0 +1,33 @@
+package com.india.idro.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.india.idro.service.MlPredictionService;
+
+/**
+ * Exposes the ML server circuit breaker state.
+ */
+@RestController
+@RequestMapping("/api/ml")
+@CrossOrigin(origins = "*")
+public class MlStatusController {
+
+    @Autowired
+    private MlPredictionService mlPredictionService;
+
+    /**
+     * GET /api/ml/status
+     * Circuit state (CLOSED / HALF_OPEN / OPEN), failure counts and last transition.
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(mlPredictionService.getCircuitStatus());
+    }
+}
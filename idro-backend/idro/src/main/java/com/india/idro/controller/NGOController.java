@@ -1,9 +1,12 @@
 package com.india.idro.controller;
 
 import com.india.idro.dto.AvailabilityUpdateRequest;
+import com.india.idro.dto.LocationUpdateRequest;
 import com.india.idro.dto.NGOLoginRequest;
 import com.india.idro.dto.NGOLoginResponse;
 import com.india.idro.dto.ResourceUpdateRequest;
+import com.india.idro.exception.BadRequestException;
+import com.india.idro.model.GeoPoints;
 import com.india.idro.model.NGO;
 import com.india.idro.service.NGOService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -99,6 +102,24 @@ public class NGOController {
         }
     }
 
+    // PUT /api/ngo/location  body: { ngoId, latitude, longitude }  (base for responder matching)
+    @PutMapping("/location")
+    public ResponseEntity<?> updateLocation(@RequestBody LocationUpdateRequest request) {
+        if (GeoPoints.of(request.getLatitude(), request.getLongitude()) == null) {
+            throw new BadRequestException("Invalid latitude/longitude");
+        }
+
+        NGO updatedNGO = ngoService.updateLocation(request.getNgoId(), request.getLatitude(),
+                request.getLongitude());
+
+        if (updatedNGO != null) {
+            updatedNGO.setPassword(null);
+            return ResponseEntity.ok(updatedNGO);
+        } else {
+            return ResponseEntity.status(404).body("NGO not found");
+        }
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<NGO>> getAllNGOs() {
         System.out.println("📋 Fetching all NGOs for government visibility");
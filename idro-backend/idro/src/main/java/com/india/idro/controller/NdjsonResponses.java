@@ -0,0 +1,46 @@
+package com.india.idro.controller;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a lazily fetched stream as newline-delimited JSON (one document
+ * per line), so large listings are never held in memory at once.
+ */
+final class NdjsonResponses {
+
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // Flush every N documents so clients can start consuming early
+    private static final int FLUSH_EVERY = 500;
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * @param source Opens the stream; called on the response thread and closed when done
+     */
+    static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper, Supplier<Stream<T>> source) {
+        StreamingResponseBody body = out -> {
+            try (Stream<T> stream = source.get()) {
+                int written = 0;
+                for (Iterator<T> it = stream.iterator(); it.hasNext();) {
+                    out.write(objectMapper.writeValueAsBytes(it.next()));
+                    out.write('\n');
+                    if (++written % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                }
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,86 @@
+package com.india.idro.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.india.idro.dto.ReservationRequest;
+import com.india.idro.exception.BadRequestException;
+import com.india.idro.model.ResourceLedgerEntry;
+import com.india.idro.model.ResourceReservation;
+import com.india.idro.service.ResourceReservationService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Holding, confirming and releasing NGO/agency stock for missions.
+ * Short stock and invalid state changes are answered with 409.
+ */
+@RestController
+@RequestMapping("/api/reservations")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReservationController {
+
+    private final ResourceReservationService reservationService;
+
+    // POST /api/reservations
+    // body: {"ownerType":"NGO","ownerId":"NGO001","missionId":"...","lines":[{"category":"medicalSupport","resource":"ambulances","quantity":2}]}
+    @PostMapping
+    public ResponseEntity<ResourceReservation> reserve(@RequestBody ReservationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservationService.reserve(request));
+    }
+
+    // GET /api/reservations/{id}
+    @GetMapping("/{id}")
+    public ResponseEntity<ResourceReservation> get(@PathVariable String id) {
+        return ResponseEntity.ok(reservationService.get(id));
+    }
+
+    // POST /api/reservations/{id}/confirm  (stock delivered, hold consumed)
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<ResourceReservation> confirm(@PathVariable String id) {
+        return ResponseEntity.ok(reservationService.confirm(id));
+    }
+
+    // POST /api/reservations/{id}/release  (stock returned to the owner)
+    @PostMapping("/{id}/release")
+    public ResponseEntity<ResourceReservation> release(@PathVariable String id) {
+        return ResponseEntity.ok(reservationService.release(id));
+    }
+
+    // GET /api/reservations?missionId=...  or  ?ownerType=NGO&ownerId=NGO001
+    @GetMapping
+    public ResponseEntity<List<ResourceReservation>> find(@RequestParam(required = false) String missionId,
+            @RequestParam(required = false) String ownerType, @RequestParam(required = false) String ownerId) {
+        if (missionId != null) {
+            return ResponseEntity.ok(reservationService.findByMission(missionId));
+        }
+        if (ownerType != null && ownerId != null) {
+            return ResponseEntity.ok(reservationService.findByOwner(ownerType, ownerId));
+        }
+        throw new BadRequestException("missionId or ownerType and ownerId are required");
+    }
+
+    // GET /api/reservations/{id}/ledger
+    @GetMapping("/{id}/ledger")
+    public ResponseEntity<List<ResourceLedgerEntry>> ledger(@PathVariable String id) {
+        return ResponseEntity.ok(reservationService.ledger(id));
+    }
+
+    // GET /api/reservations/ledger/owners/NGO/NGO001?limit=100  (newest first)
+    @GetMapping("/ledger/owners/{ownerType}/{ownerId}")
+    public ResponseEntity<List<ResourceLedgerEntry>> ownerLedger(@PathVariable String ownerType,
+            @PathVariable String ownerId, @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(reservationService.ownerLedger(ownerType, ownerId, limit));
+    }
+}
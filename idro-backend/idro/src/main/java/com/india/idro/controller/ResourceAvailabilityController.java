@@ -0,0 +1,51 @@
+package com.india.idro.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.india.idro.dto.ResourceAvailabilitySummary;
+import com.india.idro.model.ResourceAvailability;
+import com.india.idro.service.ResourceAvailabilityService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cross-organization inventory lookups over the flattened
+ * resource_availability collection.
+ */
+@RestController
+@RequestMapping("/api/resources/availability")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ResourceAvailabilityController {
+
+    private final ResourceAvailabilityService availabilityService;
+
+    // GET /api/resources/availability?resource=ambulances&minQuantity=50[&ownerType=NGO]
+    @GetMapping
+    public ResponseEntity<List<ResourceAvailability>> findAvailable(@RequestParam String resource,
+            @RequestParam(defaultValue = "1") int minQuantity,
+            @RequestParam(required = false) String ownerType) {
+        return ResponseEntity.ok(availabilityService.findAvailable(resource, minQuantity, ownerType));
+    }
+
+    // GET /api/resources/availability/summary  (total available per resource)
+    @GetMapping("/summary")
+    public ResponseEntity<List<ResourceAvailabilitySummary>> summarize() {
+        return ResponseEntity.ok(availabilityService.summarize());
+    }
+
+    // GET /api/resources/availability/owners/NGO/NGO001
+    @GetMapping("/owners/{ownerType}/{ownerId}")
+    public ResponseEntity<List<ResourceAvailability>> findByOwner(@PathVariable String ownerType,
+            @PathVariable String ownerId) {
+        return ResponseEntity.ok(availabilityService.findByOwner(ownerType, ownerId));
+    }
+}
@@ -9,10 +9,13 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.india.idro.exception.BadRequestException;
+import com.india.idro.model.GeoPoints;
 import com.india.idro.model.Volunteer;
 import com.india.idro.service.VolunteerService;
 
@@ -75,4 +78,25 @@ public class VolunteerController {
             return ResponseEntity.status(404).body("Volunteer not found");
         }
     }
+
+    // PUT /api/volunteer/{volunteerId}/location  body: { latitude, longitude }  (base for responder matching)
+    @PutMapping("/{volunteerId}/location")
+    public ResponseEntity<?> updateLocation(
+            @PathVariable String volunteerId,
+            @RequestBody Map<String, Double> request) {
+
+        Double latitude = request.get("latitude");
+        Double longitude = request.get("longitude");
+        if (GeoPoints.of(latitude, longitude) == null) {
+            throw new BadRequestException("Invalid latitude/longitude");
+        }
+
+        Volunteer volunteer = volunteerService.updateLocation(volunteerId, latitude, longitude);
+
+        if (volunteer != null) {
+            return ResponseEntity.ok(volunteer);
+        } else {
+            return ResponseEntity.status(404).body("Volunteer not found");
+        }
+    }
 }
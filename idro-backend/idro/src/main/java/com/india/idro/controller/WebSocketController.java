@@ -1,9 +1,13 @@
 package com.india.idro.controller;
 
+import com.india.idro.dto.ChangeEvent;
 import com.india.idro.model.Action;
 import com.india.idro.model.Alert;
 import com.india.idro.model.Camp;
 import com.india.idro.model.CoordinationMessage;
+import com.india.idro.service.CampUpdateCoalescer;
+import com.india.idro.service.ChangeEventPublisher;
+import com.india.idro.service.CoordinationLogService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -11,59 +15,71 @@ import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
+import java.util.Map;
+
 @Controller
 public class WebSocketController {
 
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    // Camp/alert/action topics carry sequenced ChangeEvents, never raw entities
+    @Autowired
+    private ChangeEventPublisher changePublisher;
+
+    @Autowired
+    private CoordinationLogService coordinationLog;
+
+    @Autowired
+    private CampUpdateCoalescer campUpdateCoalescer;
+
     // Handle coordination messages
     @MessageMapping("/coordination")
     @SendTo("/topic/coordination")
     public CoordinationMessage handleCoordinationMessage(@Payload CoordinationMessage message) {
-        // Process the coordination message (e.g., save to database if needed)
-        System.out.println("Received coordination message: " + message);
-        return message;
+        // Sequenced and queued for a batched write; broadcast is not held up by storage
+        return coordinationLog.append(message);
     }
 
     // Handle alert updates
     @MessageMapping("/alert")
-    @SendTo("/topic/alerts")
-    public Alert handleAlertUpdate(@Payload Alert alert) {
+    public void handleAlertUpdate(@Payload Alert alert) {
         System.out.println("Received alert update: " + alert);
-        return alert;
+        sendAlertUpdate(alert);
     }
 
-    // Handle camp updates
+    // Handle camp updates (merged per camp and sent as diffs once per coalescing window)
     @MessageMapping("/camp")
-    @SendTo("/topic/camps")
-    public Camp handleCampUpdate(@Payload Camp camp) {
-        System.out.println("Received camp update: " + camp);
-        return camp;
+    public void handleCampUpdate(@Payload Camp camp) {
+        campUpdateCoalescer.submit(camp);
     }
 
     // Handle action updates
     @MessageMapping("/action")
-    @SendTo("/topic/actions")
-    public Action handleActionUpdate(@Payload Action action) {
+    public void handleActionUpdate(@Payload Action action) {
         System.out.println("Received action update: " + action);
-        return action;
+        sendActionUpdate(action);
     }
 
     // Methods to send messages from other parts of the application
+    // (full-document updates; write paths publish field-level deltas instead)
     public void sendAlertUpdate(Alert alert) {
-        messagingTemplate.convertAndSend("/topic/alerts", alert);
+        Map<String, Object> state = changePublisher.snapshot(alert);
+        changePublisher.publishChange(ChangeEventPublisher.ALERT, ChangeEvent.Type.UPDATED, alert.getId(),
+                state, null, state);
     }
 
     public void sendCampUpdate(Camp camp) {
-        messagingTemplate.convertAndSend("/topic/camps", camp);
+        campUpdateCoalescer.submit(camp);
     }
 
     public void sendCoordinationMessage(CoordinationMessage message) {
-        messagingTemplate.convertAndSend("/topic/coordination", message);
+        messagingTemplate.convertAndSend("/topic/coordination", coordinationLog.append(message));
     }
 
     public void sendActionUpdate(Action action) {
-        messagingTemplate.convertAndSend("/topic/actions", action);
+        Map<String, Object> state = changePublisher.snapshot(action);
+        changePublisher.publishChange(ChangeEventPublisher.ACTION, ChangeEvent.Type.UPDATED, action.getId(),
+                state, null, state);
     }
 }
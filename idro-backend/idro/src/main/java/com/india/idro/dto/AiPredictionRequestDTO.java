@@ -1,5 +1,6 @@
 package com.india.idro.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
@@ -15,6 +16,12 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class AiPredictionRequestDTO {
 
+    // --- Batch Correlation ---
+
+    @JsonProperty("camp_id")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String campId; // Only sent to /predict/batch, echoed back in results
+
     // --- Disaster Classification ---
 
     @JsonProperty("disaster_type")
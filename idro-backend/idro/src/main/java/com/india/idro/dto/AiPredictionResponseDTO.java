@@ -17,6 +17,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class AiPredictionResponseDTO {
 
+    // --- Batch Correlation ---
+
+    @JsonProperty("camp_id")
+    private String campId; // Echoed by /predict/batch, null for /predict
+
     // --- Core Metadata ---
 
     @JsonProperty("risk_score")
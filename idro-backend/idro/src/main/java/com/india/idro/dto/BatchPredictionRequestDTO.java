@@ -0,0 +1,22 @@
+package com.india.idro.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for sending many camps to the ML Server in one round trip.
+ * Matches the JSON structure expected by the ML Server /predict/batch endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPredictionRequestDTO {
+
+    @JsonProperty("items")
+    private List<AiPredictionRequestDTO> items;
+}
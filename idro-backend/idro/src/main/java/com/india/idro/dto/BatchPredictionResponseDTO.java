@@ -0,0 +1,22 @@
+package com.india.idro.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for receiving batch predictions from the Python ML Server.
+ * Each result carries the camp_id of the request item it answers.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPredictionResponseDTO {
+
+    @JsonProperty("results")
+    private List<AiPredictionResponseDTO> results;
+}
@@ -0,0 +1,49 @@
+package com.india.idro.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.india.idro.exception.BadRequestException;
+import com.india.idro.model.Camp;
+
+/**
+ * Keyset position in the camp listing order (urgencyScore DESC, id ASC).
+ * 
+ * Sent to clients as an opaque URL-safe base64 token; the next page starts
+ * strictly after this camp.
+ */
+public record CampCursor(Integer urgencyScore, String id) {
+
+    public static CampCursor after(Camp camp) {
+        return new CampCursor(camp.getUrgencyScore(), camp.getId());
+    }
+
+    public String encode() {
+        String raw = (urgencyScore != null ? urgencyScore.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}.
+     * 
+     * @return the cursor, or null if the token is null/blank (first page)
+     * @throws BadRequestException if the token is malformed
+     */
+    public static CampCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String score = raw.substring(0, separator);
+            String id = raw.substring(separator + 1);
+            if (id.isEmpty()) {
+                throw new IllegalArgumentException("missing id");
+            }
+            return new CampCursor(score.isEmpty() ? null : Integer.valueOf(score), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid page cursor: " + token);
+        }
+    }
+}
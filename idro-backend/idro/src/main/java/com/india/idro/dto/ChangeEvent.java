@@ -0,0 +1,60 @@
+package com.india.idro.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact change delta pushed to /topic/camps, /topic/alerts and /topic/actions.
+ * 
+ * - seq: gap-free sequence across all entities within an epoch; clients
+ * resume from the last seq they applied via GET /api/changes?since=
+ * - epoch: identifies the publishing node process (new on every restart); with
+ * a broker relay, clients receive several epochs and track each separately
+ * - changes: only the fields that changed (UPDATED)
+ * - payload: the full document (CREATED)
+ * - missionId / tile: routing keys; the event is also pushed to
+ * /topic/missions/{missionId}/{camps|alerts|actions} and
+ * /topic/tiles/{tile}/{camps|alerts}
+ *
+ * Scoped topics carry the same global seq, so subscribers of a scope see
+ * gaps by design; they resume with GET /api/changes?since=&mission=|tile=.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private long seq;
+
+    private String epoch;
+
+    // "camp", "alert" or "action"
+    private String entity;
+
+    private Type type;
+
+    private String id;
+
+    private Map<String, Object> changes;
+
+    private Object payload;
+
+    private LocalDateTime timestamp;
+
+    // Alert (mission) the entity belongs to
+    private String missionId;
+
+    // GeoTile "zoom/x/y" of the entity's coordinates
+    private String tile;
+}
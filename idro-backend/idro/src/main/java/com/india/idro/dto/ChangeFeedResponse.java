@@ -0,0 +1,27 @@
+package com.india.idro.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Replay of change events after a client's last seen sequence number.
+ * 
+ * If resetRequired is true the requested range is no longer buffered (or the
+ * server restarted), and the client must reload its collections instead.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedResponse {
+
+    private String epoch;
+
+    private long latestSeq;
+
+    private boolean resetRequired;
+
+    private List<ChangeEvent> events;
+}
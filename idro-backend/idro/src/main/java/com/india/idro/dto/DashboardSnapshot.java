@@ -0,0 +1,19 @@
+package com.india.idro.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable dashboard figures computed in one pass, served to every client
+ * until the next recompute.
+ *
+ * ETags are derived from content, so a recompute that produces the same
+ * figures keeps them and clients keep getting 304 Not Modified.
+ */
+public record DashboardSnapshot(
+        Map<String, Object> stats,
+        String statsEtag,
+        Map<String, String> prediction,
+        String predictionEtag,
+        Instant computedAt) {
+}
@@ -0,0 +1,37 @@
+package com.india.idro.dto;
+
+/**
+ * Web Mercator ("slippy map") tile address, used to scope WebSocket topics
+ * geographically: /topic/tiles/{zoom}/{x}/{y}/camps.
+ *
+ * Clients compute the same tile numbers from the map viewport (the standard
+ * OpenStreetMap tile formula) and subscribe to the tiles they show.
+ */
+public record GeoTile(int zoom, int x, int y) {
+
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    /**
+     * Tile containing a coordinate, or null if either coordinate is missing.
+     */
+    public static GeoTile of(Double latitude, Double longitude, int zoom) {
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        int tiles = 1 << zoom;
+        double lat = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        int x = (int) Math.floor((longitude + 180.0) / 360.0 * tiles);
+        int y = (int) Math.floor((1 - Math.log(Math.tan(lat) + 1 / Math.cos(lat)) / Math.PI) / 2 * tiles);
+        return new GeoTile(zoom, clamp(x, tiles), clamp(y, tiles));
+    }
+
+    private static int clamp(int value, int tiles) {
+        return Math.max(0, Math.min(tiles - 1, value));
+    }
+
+    // "zoom/x/y", as used in topic paths
+    @Override
+    public String toString() {
+        return zoom + "/" + x + "/" + y;
+    }
+}
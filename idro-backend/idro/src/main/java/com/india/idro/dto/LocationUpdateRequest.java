@@ -0,0 +1,33 @@
+package com.india.idro.dto;
+
+public class LocationUpdateRequest {
+    private String ngoId;
+    private Double latitude;
+    private Double longitude;
+
+    public LocationUpdateRequest() {}
+
+    public String getNgoId() {
+        return ngoId;
+    }
+
+    public void setNgoId(String ngoId) {
+        this.ngoId = ngoId;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+}
@@ -22,4 +22,15 @@ public class PageResponse<T> {
     private int totalPages;
 
     private boolean last;
+
+    // Opaque keyset cursor for the next page; null on the last page
+    private String nextCursor;
+
+    /**
+     * Page of a keyset (cursor) listing. Totals are not computed for cursor
+     * pages, so pageNumber, totalElements and totalPages are -1.
+     */
+    public static <T> PageResponse<T> ofCursor(List<T> content, int pageSize, String nextCursor) {
+        return new PageResponse<>(content, -1, pageSize, -1, -1, nextCursor == null, nextCursor);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.india.idro.dto;
+
+import java.util.List;
+
+import com.india.idro.model.ReservationLine;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request to hold stock of one NGO or agency; all lines are taken together
+ * or not at all.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+
+    private String ownerType; // NGO or AGENCY
+
+    private String ownerId; // ngoId / agencyId
+
+    private String missionId;
+
+    private String requestedBy;
+
+    private List<ReservationLine> lines;
+
+    // Optional hold duration; defaults to idro.reservations.hold-ms
+    private Long holdMs;
+}
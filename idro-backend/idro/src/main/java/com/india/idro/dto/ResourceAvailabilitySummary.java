@@ -0,0 +1,24 @@
+package com.india.idro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Available quantity of one resource summed across NGOs and agencies.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceAvailabilitySummary {
+
+    private String resourceKey;
+
+    private long totalQuantity;
+
+    private int ownerCount;
+
+    private long ngoQuantity;
+
+    private long agencyQuantity;
+}
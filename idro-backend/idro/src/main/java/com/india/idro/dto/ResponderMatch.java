@@ -0,0 +1,46 @@
+package com.india.idro.dto;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One ranked candidate from the nearest-responder matcher.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResponderMatch {
+
+    // NGO, AGENCY or VOLUNTEER
+    private String responderType;
+
+    private String id;
+
+    private String name;
+
+    private double distanceKm;
+
+    // 0-100, higher is better
+    private double score;
+
+    private String availabilityStatus;
+
+    private String responseTime;
+
+    private String coverageRadius;
+
+    private boolean withinCoverage;
+
+    private boolean supportsDisasterType;
+
+    // Available stock matching the requested needs, keyed "category.item"
+    private Map<String, Integer> matchedResources;
+}
@@ -3,8 +3,15 @@ package com.india.idro.model;
 import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import com.india.idro.model.enums.AlertColor;
 import com.india.idro.model.enums.AlertType;
 
@@ -14,15 +21,25 @@ public class Alert {
     @Id
     private String id;
 
+    // Optimistic lock: a save based on a stale read fails instead of overwriting
+    @Version
+    private Long version;
+
     private AlertType type;
     private AlertColor color;
     private String location;
     private Double latitude;
     private Double longitude;
+
+    // GeoJSON copy of latitude/longitude for $near/$geoWithin; kept in sync on save
+    @JsonIgnore
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint geoPoint;
     private String magnitude;
     private String impact;
     private String details;
     private String time;
+    @Indexed
     private String missionStatus;
     private int trustScore;
     private String reporterLevel;
@@ -45,6 +62,14 @@ public class Alert {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getUrgency() {
         return urgency;
     }
@@ -196,4 +221,12 @@ public class Alert {
     public void setResponderName(String responderName) {
         this.responderName = responderName;
     }
+
+    public GeoJsonPoint getGeoPoint() {
+        return geoPoint;
+    }
+
+    public void setGeoPoint(GeoJsonPoint geoPoint) {
+        this.geoPoint = geoPoint;
+    }
 }
\ No newline at end of file
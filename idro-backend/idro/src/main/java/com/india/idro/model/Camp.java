@@ -5,8 +5,15 @@ import java.time.LocalDateTime;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.india.idro.model.enums.CampStatus;
 
 import lombok.AllArgsConstructor;
@@ -17,11 +24,22 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "camps")
+@CompoundIndexes({
+        // Keyset pagination / streaming order (see CampRepositoryImpl)
+        @CompoundIndex(name = "urgencyScore_id", def = "{'urgencyScore': -1, '_id': 1}"),
+        @CompoundIndex(name = "alertId_urgencyScore_id", def = "{'alertId': 1, 'urgencyScore': -1, '_id': 1}"),
+        // Camp counts by status (and urgency within a status) are covered by this index
+        @CompoundIndex(name = "status_urgencyScore", def = "{'status': 1, 'urgencyScore': -1}")
+})
 public class Camp {
 
     @Id
     private String id;
 
+    // Optimistic lock for full-document updates; field-level updates bump it too
+    @Version
+    private Long version;
+
     private String alertId;
     private String location;
 
@@ -51,6 +69,11 @@ public class Camp {
     private Double latitude;
     private Double longitude;
 
+    // GeoJSON copy of latitude/longitude for $near/$geoWithin; kept in sync on save
+    @JsonIgnore
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint geoPoint;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -129,6 +129,13 @@ public class CampAiPrediction {
      */
     private List<String> explanations;
 
+    /**
+     * SHA-256 fingerprint of the camp and mission inputs this prediction was
+     * computed from. If a camp's current fingerprint matches, the prediction
+     * is reused instead of recomputed.
+     */
+    private String inputHash;
+
     // ============================================================
     // Audit Fields
     // ============================================================
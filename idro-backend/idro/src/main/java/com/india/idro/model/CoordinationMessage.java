@@ -18,6 +18,10 @@ public class CoordinationMessage {
     @Id
     private String id;
 
+    // Position in the coordination log, assigned on receipt from a shared counter;
+    // clients resume with ?since=. Unique index created by MongoIndexInitializer.
+    private Long sequence;
+
     private String user;             // e.g., "Gov Command", "NGO HelpIndia"
     private String message;          // The actual message content
     private String type;             // "normal" or "warning"
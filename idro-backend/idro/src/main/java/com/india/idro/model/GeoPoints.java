@@ -0,0 +1,67 @@
+package com.india.idro.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+
+import com.india.idro.exception.BadRequestException;
+
+/**
+ * GeoJSON helpers for the 2dsphere-indexed geoPoint field of Camp and Alert.
+ * GeoJSON orders coordinates as (longitude, latitude).
+ */
+public final class GeoPoints {
+
+    private GeoPoints() {
+    }
+
+    /**
+     * Point for a latitude/longitude pair, or null if either is missing or
+     * out of range (a 2dsphere index rejects such documents).
+     */
+    public static GeoJsonPoint of(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null
+                || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            return null;
+        }
+        return new GeoJsonPoint(longitude, latitude);
+    }
+
+    /**
+     * Rectangle as a GeoJSON polygon ($box is not supported on 2dsphere indexes).
+     */
+    public static GeoJsonPolygon box(double minLat, double minLon, double maxLat, double maxLon) {
+        if (minLat >= maxLat || minLon >= maxLon) {
+            throw new BadRequestException("Box must have minLat < maxLat and minLon < maxLon");
+        }
+        return new GeoJsonPolygon(
+                new Point(minLon, minLat),
+                new Point(maxLon, minLat),
+                new Point(maxLon, maxLat),
+                new Point(minLon, maxLat),
+                new Point(minLon, minLat));
+    }
+
+    /**
+     * Polygon from [longitude, latitude] pairs; the ring is closed if needed.
+     */
+    public static GeoJsonPolygon polygon(List<double[]> coordinates) {
+        if (coordinates == null || coordinates.size() < 3) {
+            throw new BadRequestException("Polygon needs at least 3 [longitude, latitude] points");
+        }
+        List<Point> ring = new ArrayList<>();
+        for (double[] pair : coordinates) {
+            if (pair == null || pair.length != 2) {
+                throw new BadRequestException("Polygon points must be [longitude, latitude] pairs");
+            }
+            ring.add(new Point(pair[0], pair[1]));
+        }
+        if (!ring.get(0).equals(ring.get(ring.size() - 1))) {
+            ring.add(ring.get(0));
+        }
+        return new GeoJsonPolygon(ring);
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Map;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.india.idro.model.enums.AgencyType;
 import com.india.idro.model.enums.AvailabilityStatus;
 import com.india.idro.model.enums.CoverageRadius;
@@ -27,6 +28,8 @@ public class GovernmentAgency {
     private String password; // Password for login
     private String operatingRegion; // Region of operation (e.g., "Maharashtra", "Western India")
     private List<String> supportedDisasterTypes; // Types of disasters they handle
+    private Double latitude; // Base location, used for nearest-responder matching
+    private Double longitude;
 
     // Resources organized by category
     private Map<String, List<ResourceItem>> resources;
@@ -37,6 +40,10 @@ public class GovernmentAgency {
     private CoverageRadius coverageRadius;
     private LocalDateTime lastUpdated;
 
+    // Ids of reservations currently holding stock; guards reserve/release against replays
+    @JsonIgnore
+    private List<String> heldReservations;
+
     // Constructors
     public GovernmentAgency() {
         this.resources = new HashMap<>();
@@ -155,4 +162,28 @@ public class GovernmentAgency {
     public void setLastUpdated(LocalDateTime lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public List<String> getHeldReservations() {
+        return heldReservations;
+    }
+
+    public void setHeldReservations(List<String> heldReservations) {
+        this.heldReservations = heldReservations;
+    }
 }
@@ -0,0 +1,59 @@
+package com.india.idro.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Materialized supply-vs-demand gap for one resource of one mission.
+ *
+ * Written only by MissionGapService's aggregation pipeline ($merge):
+ * demand is the sum of the mission's camp predictions; reserved is the
+ * stock held for or delivered to this mission through resource_reservations;
+ * supply is the open (unreserved) stock of the matching resource across NGOs
+ * and agencies, shared by every mission. The gap is what neither covers.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "mission_resource_gaps")
+@CompoundIndexes({
+        @CompoundIndex(name = "missionId_gap", def = "{'missionId': 1, 'gap': -1}")
+})
+public class MissionResourceGap {
+
+    // "{missionId}:{resource}"
+    @Id
+    private String id;
+
+    private String missionId;
+
+    // Prediction field, e.g. "foodPerDay", "ambulances"
+    private String resource;
+
+    // resource_availability.resourceKey counted as supply; null if no supply is tracked
+    private String supplyKey;
+
+    private long demand;
+
+    private long reserved;
+
+    private long supply;
+
+    // max(0, demand - reserved - supply)
+    private long gap;
+
+    // (reserved + supply) / demand, capped at 1 (1 when there is no demand)
+    private double coverage;
+
+    private int campCount;
+
+    private Date computedAt;
+}
@@ -1,5 +1,6 @@
 package com.india.idro.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.india.idro.model.enums.AvailabilityStatus;
 import com.india.idro.model.enums.CoverageRadius;
 import com.india.idro.model.enums.ResponseTime;
@@ -29,6 +30,10 @@ public class NGO {
     private String operatingRegion;
     private List<String> supportedDisasterTypes;
 
+    // Base location, used for nearest-responder matching
+    private Double latitude;
+    private Double longitude;
+
     // Resource Fields (Editable)
     private Map<String, ResourceItem> reliefSupplies;
     private Map<String, ResourceItem> medicalSupport;
@@ -43,6 +48,10 @@ public class NGO {
 
     // Metadata
     private LocalDateTime lastUpdated;
+
+    // Ids of reservations currently holding stock; guards reserve/release against replays
+    @JsonIgnore
+    private List<String> heldReservations;
     private LocalDateTime createdAt;
 
     public NGO() {
@@ -218,4 +227,28 @@ public class NGO {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public List<String> getHeldReservations() {
+        return heldReservations;
+    }
+
+    public void setHeldReservations(List<String> heldReservations) {
+        this.heldReservations = heldReservations;
+    }
 }
@@ -0,0 +1,19 @@
+package com.india.idro.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One resource of a reservation: how many units of which item in which
+ * inventory section of the owner.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationLine {
+
+    private String category; // e.g. "medicalSupport", "MEDICAL_RESOURCES"
+    private String resource; // item name as stored by the owner, e.g. "ambulances"
+    private int quantity;
+}
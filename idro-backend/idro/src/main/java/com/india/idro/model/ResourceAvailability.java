@@ -0,0 +1,66 @@
+package com.india.idro.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.india.idro.model.enums.AvailabilityStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One resource line of one NGO or agency, flattened out of the owners'
+ * nested resource maps so inventory lookups are indexed queries.
+ *
+ * Derived data: rewritten by ResourceAvailabilityService whenever the
+ * owner's resources or availability change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "resource_availability")
+@CompoundIndexes({
+        // "who has N of X available": equality on key/available, range + sort on quantity,
+        // ownerStatus filtered from the index keys without fetching the rows
+        @CompoundIndex(name = "resourceKey_available_quantity_ownerStatus",
+                def = "{'resourceKey': 1, 'available': 1, 'quantity': -1, 'ownerStatus': 1}"),
+        @CompoundIndex(name = "ownerType_ownerId", def = "{'ownerType': 1, 'ownerId': 1}")
+})
+public class ResourceAvailability {
+
+    // "{ownerType}:{ownerId}:{category}:{resourceKey}"
+    @Id
+    private String id;
+
+    private String ownerType; // NGO or AGENCY
+    private String ownerId; // ngoId / agencyId
+    private String ownerName;
+    private AvailabilityStatus ownerStatus;
+
+    private String category; // e.g. "medicalSupport", "MEDICAL_RESOURCES"
+    private String resourceName; // as entered, e.g. "ambulances", "First Aid Kits"
+    private String resourceKey; // normalized name: lower case, letters and digits only
+
+    private boolean available;
+    private int quantity;
+
+    private LocalDateTime updatedAt;
+
+    // Owner's lastUpdated this row was built from; older rows never replace newer ones
+    private LocalDateTime ownerUpdatedAt;
+
+    /**
+     * Normalized form used for matching resource names across owners
+     * ("firstAidKits" and "First Aid Kits" both become "firstaidkits").
+     */
+    public static String keyOf(String resourceName) {
+        return resourceName == null ? "" : resourceName.toLowerCase().replaceAll("[^a-z0-9]", "");
+    }
+}
@@ -0,0 +1,51 @@
+package com.india.idro.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Append-only record of one stock movement caused by a reservation.
+ * Summing delta per (owner, category, resource) gives the net quantity
+ * reserved through the API.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "resource_ledger")
+@CompoundIndexes({
+        @CompoundIndex(name = "reservationId", def = "{'reservationId': 1}"),
+        @CompoundIndex(name = "ownerType_ownerId_createdAt", def = "{'ownerType': 1, 'ownerId': 1, 'createdAt': -1}")
+})
+public class ResourceLedgerEntry {
+
+    public enum Type {
+        RESERVE, // stock taken (delta < 0)
+        CONFIRM, // hold consumed by the mission (delta 0)
+        RELEASE, // stock returned on request (delta > 0)
+        EXPIRE // stock returned after the hold timed out (delta > 0)
+    }
+
+    // "{reservationId}:{type}:{line}": replaying a step writes the same entries again
+    @Id
+    private String id;
+
+    private String reservationId;
+    private Type type;
+    private String ownerType;
+    private String ownerId;
+    private String missionId;
+    private String category;
+    private String resource;
+    private int delta;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,54 @@
+package com.india.idro.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.india.idro.model.enums.ReservationStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock of one NGO or agency held for a mission. The decrement is applied to
+ * the owner document atomically for all lines; a hold that is neither
+ * confirmed nor released before expiresAt is returned by the sweeper.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "resource_reservations")
+@CompoundIndexes({
+        // Sweeper: open holds past their deadline, and terminal ones still to settle
+        @CompoundIndex(name = "status_expiresAt", def = "{'status': 1, 'expiresAt': 1}"),
+        @CompoundIndex(name = "missionId_createdAt", def = "{'missionId': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "ownerType_ownerId_createdAt", def = "{'ownerType': 1, 'ownerId': 1, 'createdAt': -1}")
+})
+public class ResourceReservation {
+
+    @Id
+    private String id;
+
+    private String ownerType; // NGO or AGENCY
+    private String ownerId; // ngoId / agencyId
+    private String missionId; // alert id, optional
+    private String requestedBy;
+
+    private List<ReservationLine> lines;
+
+    private ReservationStatus status;
+
+    // False while released/expired stock still has to be returned to the owner
+    private boolean settled;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime updatedAt;
+}
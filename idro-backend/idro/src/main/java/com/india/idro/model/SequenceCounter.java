@@ -0,0 +1,26 @@
+package com.india.idro.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cluster-wide counter, incremented with findAndModify so every node draws
+ * from the same sequence.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "counters")
+public class SequenceCounter {
+
+    // Name of the sequence, e.g. "coordination_messages"
+    @Id
+    private String id;
+
+    // Last value handed out
+    private long value;
+}
@@ -17,6 +17,8 @@ public class Volunteer {
     private String location; // City/location
     private String skills; // Skills (comma-separated)
     private boolean available; // Availability status
+    private Double latitude; // Base location, used for nearest-responder matching
+    private Double longitude;
 
     // Constructors
     public Volunteer() {
@@ -94,4 +96,20 @@ public class Volunteer {
     public void setAvailable(boolean available) {
         this.available = available;
     }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
 }
@@ -0,0 +1,10 @@
+package com.india.idro.model.enums;
+
+public enum ReservationStatus {
+    PENDING, // recorded, stock not yet taken
+    HELD, // stock decremented, awaiting confirm/release
+    CONFIRMED, // stock consumed by the mission
+    RELEASED, // returned by the caller
+    EXPIRED, // returned by the sweeper after the hold timed out
+    REJECTED // not enough stock; nothing was taken
+}
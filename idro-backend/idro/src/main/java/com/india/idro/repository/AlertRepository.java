@@ -1,16 +1,21 @@
 package com.india.idro.repository;
 
 import com.india.idro.model.Alert;
+import com.india.idro.model.GeoPoints;
 import com.india.idro.model.enums.AlertColor;
 import com.india.idro.model.enums.AlertType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 // ✅ EXTENDS MongoRepository<Alert, String> -> This is the CRITICAL part for MongoDB
 @Repository
-public interface AlertRepository extends MongoRepository<Alert, String> {
+public interface AlertRepository extends MongoRepository<Alert, String>, AlertRepositoryCustom {
 
     // --- Custom Queries (Spring Data Auto-Implements These) ---
 
@@ -31,4 +36,26 @@ public interface AlertRepository extends MongoRepository<Alert, String> {
 
     // Find alerts by type and color
     List<Alert> findByTypeAndColor(AlertType type, AlertColor color);
+
+    // Alerts whose mission has this status (e.g. OPEN, ASSIGNED)
+    long countByMissionStatus(String missionStatus);
+
+    // Open missions: OPEN, or no status yet (alerts created before missions existed)
+    @Query(value = "{ 'missionStatus': { $in: ['OPEN', null] } }", count = true)
+    long countOpenMissions();
+
+    // --- Geospatial queries (2dsphere index on geoPoint) ---
+
+    // Alerts within maxDistance meters of a point, nearest first
+    @Query("{ 'geoPoint': { $nearSphere: { $geometry: ?0, $maxDistance: ?1 } } }")
+    List<Alert> findNear(GeoJsonPoint point, double maxDistanceMeters, Pageable pageable);
+
+    // Alerts inside a polygon
+    @Query("{ 'geoPoint': { $geoWithin: { $geometry: ?0 } } }")
+    List<Alert> findWithin(GeoJsonPolygon polygon);
+
+    // Alerts inside a latitude/longitude box
+    default List<Alert> findWithinBox(double minLat, double minLon, double maxLat, double maxLon) {
+        return findWithin(GeoPoints.box(minLat, minLon, maxLat, maxLon));
+    }
 }
\ No newline at end of file
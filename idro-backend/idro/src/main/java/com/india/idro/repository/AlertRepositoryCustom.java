@@ -0,0 +1,20 @@
+package com.india.idro.repository;
+
+import com.india.idro.model.Alert;
+
+/**
+ * Conditional alert writes that must not be split into a read and a save.
+ */
+public interface AlertRepositoryCustom {
+
+    /**
+     * Atomically move an OPEN (or status-less) mission to ASSIGNED.
+     * Of any number of concurrent callers for the same alert, exactly one wins.
+     *
+     * @param id            Alert id
+     * @param responderName Responder taking the mission
+     * @return The alert as it was before the assignment, or null if it does
+     *         not exist or is no longer open
+     */
+    Alert assignIfOpen(String id, String responderName);
+}
@@ -0,0 +1,37 @@
+package com.india.idro.repository;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.india.idro.model.Alert;
+
+/**
+ * MongoTemplate-backed implementation of {@link AlertRepositoryCustom}.
+ * The status check and the write happen in one findAndModify on _id, so the
+ * server serializes racing assignments and the losers match nothing.
+ */
+public class AlertRepositoryImpl implements AlertRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public AlertRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Alert assignIfOpen(String id, String responderName) {
+        Query open = new Query(Criteria.where("id").is(id)
+                .orOperator(Criteria.where("missionStatus").is("OPEN"), Criteria.where("missionStatus").is(null)));
+
+        // Bump the version too, so a concurrent read-modify-save of the same alert fails
+        Update assign = new Update()
+                .set("missionStatus", "ASSIGNED")
+                .set("responderName", responderName)
+                .inc("version", 1);
+
+        return mongoTemplate.findAndModify(open, assign, FindAndModifyOptions.options().returnNew(false), Alert.class);
+    }
+}
@@ -13,9 +13,12 @@ import com.india.idro.model.CampAiPrediction;
  * Repository for CampAiPrediction entity.
  * 
  * Provides data access methods for AI predictions.
+ * There is at most one prediction per (missionId, campId); analysis runs
+ * write through {@link CampAiPredictionRepositoryCustom#upsertAll}.
  */
 @Repository
-public interface CampAiPredictionRepository extends MongoRepository<CampAiPrediction, String> {
+public interface CampAiPredictionRepository
+        extends MongoRepository<CampAiPrediction, String>, CampAiPredictionRepositoryCustom {
 
     // ============================================================
     // Query by Relationships
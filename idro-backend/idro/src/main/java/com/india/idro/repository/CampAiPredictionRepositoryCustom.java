@@ -0,0 +1,28 @@
+package com.india.idro.repository;
+
+import java.util.Collection;
+
+import com.india.idro.model.CampAiPrediction;
+
+/**
+ * Custom bulk operations for CampAiPrediction that Spring Data
+ * derived queries cannot express.
+ */
+public interface CampAiPredictionRepositoryCustom {
+
+    /**
+     * Upsert predictions keyed on (missionId, campId) in a single unordered
+     * bulk write. Existing documents are overwritten in place, so each
+     * mission/camp pair keeps exactly one prediction.
+     * 
+     * @param predictions Predictions to write
+     * @return Number of documents inserted or modified
+     */
+    int upsertAll(Collection<CampAiPrediction> predictions);
+
+    /**
+     * Remove duplicate (missionId, campId) predictions left by older
+     * versions (keeping the newest) and create the unique compound index.
+     */
+    void ensureMissionCampIndex();
+}
@@ -0,0 +1,107 @@
+package com.india.idro.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+
+import com.india.idro.model.CampAiPrediction;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteResult;
+
+/**
+ * MongoTemplate-backed implementation of {@link CampAiPredictionRepositoryCustom}.
+ */
+public class CampAiPredictionRepositoryImpl implements CampAiPredictionRepositoryCustom {
+
+    private static final Logger logger = LoggerFactory.getLogger(CampAiPredictionRepositoryImpl.class);
+
+    private static final String MISSION_CAMP_INDEX = "missionId_campId_unique";
+
+    // Dedicated template so the bulk write concern does not leak into other writes
+    private final MongoTemplate bulkTemplate;
+
+    public CampAiPredictionRepositoryImpl(MongoTemplate mongoTemplate,
+            @Value("${idro.analysis.prediction-write-concern:ACKNOWLEDGED}") String writeConcern) {
+        this.bulkTemplate = new MongoTemplate(mongoTemplate.getMongoDatabaseFactory(), mongoTemplate.getConverter());
+        WriteConcern concern = WriteConcern.valueOf(writeConcern);
+        if (concern == null) {
+            throw new IllegalArgumentException("Unknown write concern: " + writeConcern);
+        }
+        this.bulkTemplate.setWriteConcern(concern);
+    }
+
+    @Override
+    public int upsertAll(Collection<CampAiPrediction> predictions) {
+        if (predictions.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Pair<Query, Update>> upserts = new ArrayList<>(predictions.size());
+        for (CampAiPrediction prediction : predictions) {
+            Query key = Query.query(Criteria.where("missionId").is(prediction.getMissionId())
+                    .and("campId").is(prediction.getCampId()));
+
+            // Map the entity through the converter so field names/types match save()
+            Document fields = new Document();
+            bulkTemplate.getConverter().write(prediction, fields);
+            fields.remove("_id");
+            fields.remove("_class");
+            fields.remove("createdAt");
+            fields.remove("updatedAt");
+
+            Update update = new Update();
+            fields.forEach(update::set);
+            update.set("updatedAt", now);
+            update.setOnInsert("createdAt", now);
+            upserts.add(Pair.of(key, update));
+        }
+
+        BulkWriteResult result = bulkTemplate
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, CampAiPrediction.class)
+                .upsert(upserts)
+                .execute();
+        return result.getUpserts().size() + result.getModifiedCount();
+    }
+
+    @Override
+    public void ensureMissionCampIndex() {
+        // Older runs inserted a new document per camp on every analysis; keep only the newest
+        Aggregation duplicates = Aggregation.newAggregation(
+                Aggregation.sort(Sort.Direction.DESC, "createdAt"),
+                Aggregation.group("missionId", "campId").push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        List<Object> staleIds = new ArrayList<>();
+        for (Document group : bulkTemplate.aggregate(duplicates, CampAiPrediction.class, Document.class)) {
+            List<?> ids = group.getList("ids", Object.class);
+            staleIds.addAll(ids.subList(1, ids.size()));
+        }
+        if (!staleIds.isEmpty()) {
+            bulkTemplate.remove(Query.query(Criteria.where("_id").in(staleIds)), CampAiPrediction.class);
+            logger.info("🧹 Removed {} duplicate camp predictions", staleIds.size());
+        }
+
+        bulkTemplate.indexOps(CampAiPrediction.class).ensureIndex(new Index()
+                .on("missionId", Sort.Direction.ASC)
+                .on("campId", Sort.Direction.ASC)
+                .unique()
+                .named(MISSION_CAMP_INDEX));
+    }
+}
@@ -1,16 +1,22 @@
 package com.india.idro.repository;
 
 import com.india.idro.model.Camp;
+import com.india.idro.model.GeoPoints;
 import com.india.idro.model.enums.CampStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface CampRepository extends MongoRepository<Camp, String> {
+public interface CampRepository extends MongoRepository<Camp, String>, CampRepositoryCustom {
 
-    
+    // Critical camps are those with urgencyScore >= this
+    int CRITICAL_URGENCY = 80;
 
     List<Camp> findByAlertId(String alertId);
 
@@ -35,6 +41,31 @@ public interface CampRepository extends MongoRepository<Camp, String> {
 
     // Find critical camps (urgency score >= 80)
     default List<Camp> findCriticalCamps() {
-        return findByUrgencyScoreGreaterThanEqual(80);
+        return findByUrgencyScoreGreaterThanEqual(CRITICAL_URGENCY);
+    }
+
+    // --- Counts (answered from indexes, no documents loaded) ---
+
+    long countByStatus(CampStatus status);
+
+    long countByUrgencyScoreGreaterThanEqual(Integer threshold);
+
+    default long countCriticalCamps() {
+        return countByUrgencyScoreGreaterThanEqual(CRITICAL_URGENCY);
+    }
+
+    // --- Geospatial queries (2dsphere index on geoPoint) ---
+
+    // Camps within maxDistance meters of a point, nearest first
+    @Query("{ 'geoPoint': { $nearSphere: { $geometry: ?0, $maxDistance: ?1 } } }")
+    List<Camp> findNear(GeoJsonPoint point, double maxDistanceMeters, Pageable pageable);
+
+    // Camps inside a polygon
+    @Query("{ 'geoPoint': { $geoWithin: { $geometry: ?0 } } }")
+    List<Camp> findWithin(GeoJsonPolygon polygon);
+
+    // Camps inside a latitude/longitude box
+    default List<Camp> findWithinBox(double minLat, double minLon, double maxLat, double maxLon) {
+        return findWithin(GeoPoints.box(minLat, minLon, maxLat, maxLon));
     }
 }
\ No newline at end of file
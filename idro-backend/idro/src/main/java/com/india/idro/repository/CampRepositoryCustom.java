@@ -0,0 +1,36 @@
+package com.india.idro.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.india.idro.dto.CampCursor;
+import com.india.idro.model.Camp;
+
+/**
+ * Keyset-paginated and streaming camp queries that Spring Data derived
+ * queries cannot express.
+ * 
+ * Both use the listing order urgencyScore DESC (camps without a score last),
+ * then id ASC as a unique tie-breaker.
+ */
+public interface CampRepositoryCustom {
+
+    /**
+     * Fetch up to {@code limit} camps after the cursor.
+     * 
+     * @param alertId Restrict to one alert's camps, or null for all camps
+     * @param after   Position of the last camp already seen, or null for the first page
+     * @param limit   Maximum number of camps to return
+     * @return Camps in listing order
+     */
+    List<Camp> findPage(String alertId, CampCursor after, int limit);
+
+    /**
+     * Stream camps in listing order from a server-side Mongo cursor.
+     * The stream must be closed by the caller.
+     * 
+     * @param alertId Restrict to one alert's camps, or null for all camps
+     * @return Lazily fetched camps
+     */
+    Stream<Camp> streamAll(String alertId);
+}
@@ -0,0 +1,73 @@
+package com.india.idro.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.india.idro.dto.CampCursor;
+import com.india.idro.model.Camp;
+
+/**
+ * MongoTemplate-backed implementation of {@link CampRepositoryCustom}.
+ * Served by the (urgencyScore, _id) and (alertId, urgencyScore, _id) indexes on Camp.
+ */
+public class CampRepositoryImpl implements CampRepositoryCustom {
+
+    private static final Sort LISTING_ORDER = Sort.by(Sort.Direction.DESC, "urgencyScore")
+            .and(Sort.by(Sort.Direction.ASC, "id"));
+
+    private final MongoTemplate mongoTemplate;
+
+    public CampRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Camp> findPage(String alertId, CampCursor after, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (alertId != null) {
+            filters.add(Criteria.where("alertId").is(alertId));
+        }
+        if (after != null) {
+            filters.add(afterCursor(after));
+        }
+
+        Query query = new Query().with(LISTING_ORDER).limit(limit);
+        if (!filters.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filters));
+        }
+        return mongoTemplate.find(query, Camp.class);
+    }
+
+    @Override
+    public Stream<Camp> streamAll(String alertId) {
+        Query query = new Query().with(LISTING_ORDER);
+        if (alertId != null) {
+            query.addCriteria(Criteria.where("alertId").is(alertId));
+        }
+        return mongoTemplate.stream(query, Camp.class);
+    }
+
+    /**
+     * Camps strictly after the cursor in listing order. Null scores sort
+     * after every number in a descending sort, so they follow scored camps.
+     */
+    private static Criteria afterCursor(CampCursor after) {
+        if (after.urgencyScore() == null) {
+            return new Criteria().andOperator(
+                    Criteria.where("urgencyScore").is(null),
+                    Criteria.where("id").gt(after.id()));
+        }
+        return new Criteria().orOperator(
+                Criteria.where("urgencyScore").lt(after.urgencyScore()),
+                new Criteria().andOperator(
+                        Criteria.where("urgencyScore").is(after.urgencyScore()),
+                        Criteria.where("id").gt(after.id())),
+                Criteria.where("urgencyScore").is(null));
+    }
+}
@@ -0,0 +1,20 @@
+package com.india.idro.repository;
+
+import com.india.idro.model.CoordinationMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CoordinationMessageRepository extends MongoRepository<CoordinationMessage, String>,
+        CoordinationMessageRepositoryCustom {
+
+    // Messages after a log position, oldest first
+    List<CoordinationMessage> findBySequenceGreaterThanOrderBySequenceAsc(long sequence, Pageable pageable);
+
+    // Highest stored position (the shared counter is raised to at least this on startup)
+    Optional<CoordinationMessage> findFirstBySequenceNotNullOrderBySequenceDesc();
+}
@@ -0,0 +1,26 @@
+package com.india.idro.repository;
+
+/**
+ * Sequence allocation and index maintenance for the coordination log that
+ * Spring Data derived queries cannot express.
+ */
+public interface CoordinationMessageRepositoryCustom {
+
+    /**
+     * Next log position from the shared counter document; unique across
+     * nodes and restarts.
+     */
+    long nextSequence();
+
+    /**
+     * Raise the shared counter to at least {@code value} (no-op if it is
+     * already higher), creating it if needed.
+     */
+    void ensureSequenceAtLeast(long value);
+
+    /**
+     * Renumber messages that share a sequence (left by per-node counters,
+     * keeping the oldest) and create the unique sequence index.
+     */
+    void ensureSequenceIndex();
+}
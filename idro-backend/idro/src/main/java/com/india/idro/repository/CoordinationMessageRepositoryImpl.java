@@ -0,0 +1,90 @@
+package com.india.idro.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.india.idro.model.CoordinationMessage;
+import com.india.idro.model.SequenceCounter;
+
+/**
+ * MongoTemplate-backed implementation of {@link CoordinationMessageRepositoryCustom}.
+ */
+public class CoordinationMessageRepositoryImpl implements CoordinationMessageRepositoryCustom {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoordinationMessageRepositoryImpl.class);
+
+    private static final String COUNTER_ID = "coordination_messages";
+
+    private static final String SEQUENCE_INDEX = "sequence_unique";
+
+    // Plain index created by the former @Indexed annotation
+    private static final String REPLACED_SEQUENCE_INDEX = "sequence";
+
+    private final MongoTemplate mongoTemplate;
+
+    public CoordinationMessageRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public long nextSequence() {
+        SequenceCounter counter = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(COUNTER_ID)),
+                new Update().inc("value", 1),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                SequenceCounter.class);
+        return counter.getValue();
+    }
+
+    @Override
+    public void ensureSequenceAtLeast(long value) {
+        mongoTemplate.upsert(Query.query(Criteria.where("id").is(COUNTER_ID)),
+                new Update().max("value", value), SequenceCounter.class);
+    }
+
+    @Override
+    public void ensureSequenceIndex() {
+        // Per-node counters could hand out the same sequence twice; the oldest message keeps it
+        Aggregation duplicates = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("sequence").ne(null)),
+                Aggregation.sort(Sort.Direction.ASC, "createdAt"),
+                Aggregation.group("sequence").push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        List<Object> renumber = new ArrayList<>();
+        for (Document group : mongoTemplate.aggregate(duplicates, CoordinationMessage.class, Document.class)) {
+            List<?> ids = group.getList("ids", Object.class);
+            renumber.addAll(ids.subList(1, ids.size()));
+        }
+        for (Object id : renumber) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                    new Update().set("sequence", nextSequence()), CoordinationMessage.class);
+        }
+        if (!renumber.isEmpty()) {
+            logger.info("🧹 Renumbered {} coordination messages with a duplicate sequence", renumber.size());
+        }
+
+        IndexOperations indexes = mongoTemplate.indexOps(CoordinationMessage.class);
+        if (indexes.getIndexInfo().stream().anyMatch(index -> REPLACED_SEQUENCE_INDEX.equals(index.getName()))) {
+            indexes.dropIndex(REPLACED_SEQUENCE_INDEX);
+        }
+        indexes.ensureIndex(new Index()
+                .on("sequence", Sort.Direction.ASC)
+                .unique()
+                .named(SEQUENCE_INDEX));
+    }
+}
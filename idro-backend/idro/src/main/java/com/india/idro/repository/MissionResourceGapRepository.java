@@ -0,0 +1,17 @@
+package com.india.idro.repository;
+
+import com.india.idro.model.MissionResourceGap;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MissionResourceGapRepository extends MongoRepository<MissionResourceGap, String> {
+
+    // One mission's gap table, largest shortfall first
+    List<MissionResourceGap> findByMissionIdOrderByGapDesc(String missionId);
+
+    // Unmet demand across all missions
+    List<MissionResourceGap> findByGapGreaterThanEqualOrderByGapDesc(long minGap);
+}
@@ -0,0 +1,24 @@
+package com.india.idro.repository;
+
+import com.india.idro.model.ResourceAvailability;
+import com.india.idro.model.enums.AvailabilityStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ResourceAvailabilityRepository extends MongoRepository<ResourceAvailability, String> {
+
+    // Owners with at least minQuantity of a resource available, largest stock first,
+    // skipping owners in the given status (NOT_AVAILABLE)
+    List<ResourceAvailability> findByResourceKeyAndAvailableTrueAndQuantityGreaterThanEqualAndOwnerStatusNotOrderByQuantityDesc(
+            String resourceKey, int minQuantity, AvailabilityStatus excludedStatus);
+
+    // Same, limited to NGOs or agencies
+    List<ResourceAvailability> findByResourceKeyAndOwnerTypeAndAvailableTrueAndQuantityGreaterThanEqualAndOwnerStatusNotOrderByQuantityDesc(
+            String resourceKey, String ownerType, int minQuantity, AvailabilityStatus excludedStatus);
+
+    // All resource lines of one owner
+    List<ResourceAvailability> findByOwnerTypeAndOwnerId(String ownerType, String ownerId);
+}
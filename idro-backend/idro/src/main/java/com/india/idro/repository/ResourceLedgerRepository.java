@@ -0,0 +1,19 @@
+package com.india.idro.repository;
+
+import com.india.idro.model.ResourceLedgerEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ResourceLedgerRepository extends MongoRepository<ResourceLedgerEntry, String> {
+
+    // Movements of one reservation, in order
+    List<ResourceLedgerEntry> findByReservationIdOrderByCreatedAtAsc(String reservationId);
+
+    // Latest movements on one owner's stock
+    List<ResourceLedgerEntry> findByOwnerTypeAndOwnerIdOrderByCreatedAtDesc(String ownerType, String ownerId,
+            Pageable pageable);
+}
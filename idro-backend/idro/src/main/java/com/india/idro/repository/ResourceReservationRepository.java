@@ -0,0 +1,29 @@
+package com.india.idro.repository;
+
+import com.india.idro.model.ResourceReservation;
+import com.india.idro.model.enums.ReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ResourceReservationRepository extends MongoRepository<ResourceReservation, String> {
+
+    // Reservations made for one mission, newest first
+    List<ResourceReservation> findByMissionIdOrderByCreatedAtDesc(String missionId);
+
+    // Reservations against one owner's stock, newest first
+    List<ResourceReservation> findByOwnerTypeAndOwnerIdOrderByCreatedAtDesc(String ownerType, String ownerId);
+
+    // Sweeper: holds past their deadline
+    List<ResourceReservation> findByStatusInAndExpiresAtBefore(Collection<ReservationStatus> statuses,
+            LocalDateTime now, Pageable pageable);
+
+    // Sweeper: released/expired reservations whose stock has not been returned yet
+    List<ResourceReservation> findByStatusInAndSettledFalseAndUpdatedAtBefore(Collection<ReservationStatus> statuses,
+            LocalDateTime before, Pageable pageable);
+}
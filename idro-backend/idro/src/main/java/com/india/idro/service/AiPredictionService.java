@@ -2,6 +2,8 @@ package com.india.idro.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -9,20 +11,15 @@ import org.springframework.web.client.RestTemplate;
 public class AiPredictionService {
 
     private static final Logger logger = LoggerFactory.getLogger(AiPredictionService.class);
-    private final String ML_API_URL = "http://127.0.0.1:8000/predict";
+    private final String ML_API_URL;
     private final RestTemplate restTemplate;
 
-    public AiPredictionService() {
-        // Configure RestTemplate with timeouts to prevent hanging
-        // Connection timeout: 5 seconds (time to establish connection)
-        // Read timeout: 30 seconds (time to wait for ML prediction response)
-        org.springframework.http.client.SimpleClientHttpRequestFactory factory = new org.springframework.http.client.SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(5000); // 5 seconds
-        factory.setReadTimeout(30000); // 30 seconds
-
-        this.restTemplate = new RestTemplate(factory);
-        logger.info("AiPredictionService initialized with ML API URL: {} (Connection timeout: 5s, Read timeout: 30s)",
-                ML_API_URL);
+    public AiPredictionService(@Qualifier("mlRestTemplate") RestTemplate restTemplate,
+            @Value("${idro.ml.base-url:http://localhost:8000}") String mlBaseUrl) {
+        // Shared keep-alive connection pool and timeouts come from MlClientConfig
+        this.restTemplate = restTemplate;
+        this.ML_API_URL = mlBaseUrl + "/predict";
+        logger.info("AiPredictionService initialized with ML API URL: {}", ML_API_URL);
     }
 
     // --- Public Methods ---
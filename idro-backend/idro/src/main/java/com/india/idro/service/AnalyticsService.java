@@ -4,9 +4,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
 import com.india.idro.model.Alert;
+import com.india.idro.model.Camp;
 import com.india.idro.model.enums.UserRole;
 import com.india.idro.repository.AlertRepository;
 import com.india.idro.repository.CampRepository;
@@ -14,7 +16,9 @@ import com.india.idro.repository.UserRepository;
 
 @Service
 public class AnalyticsService {
-    
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     @Autowired
     private AlertRepository alertRepository;
@@ -59,16 +63,15 @@ public class AnalyticsService {
     }
 
     // --- 2. Dashboard Stats ---
+    // Totals use the collection metadata count (O(1)); each filtered counter is a
+    // count query its index answers: missionStatus, urgencyScore_id, role.
     public Map<String, Object> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
-
-        long totalThreats = alertRepository.count();
-        long activeCamps = campRepository.count();
-        long volunteers = userRepository.countByRole(UserRole.VOLUNTEER);
-
-        stats.put("totalThreats", totalThreats);
-        stats.put("activeCamps", activeCamps);
-        stats.put("volunteers", volunteers);
+        stats.put("totalThreats", mongoTemplate.estimatedCount(Alert.class));
+        stats.put("openMissions", alertRepository.countOpenMissions());
+        stats.put("activeCamps", mongoTemplate.estimatedCount(Camp.class));
+        stats.put("criticalCamps", campRepository.countCriticalCamps());
+        stats.put("volunteers", userRepository.countByRole(UserRole.VOLUNTEER));
         stats.put("systemStatus", "ONLINE");
 
         return stats;
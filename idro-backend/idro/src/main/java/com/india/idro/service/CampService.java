@@ -1,14 +1,32 @@
 package com.india.idro.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.india.idro.dto.CampCursor;
+import com.india.idro.dto.PageResponse;
 import com.india.idro.exception.ResourceNotFoundException;
+import com.india.idro.exception.BadRequestException;
+import com.india.idro.model.Alert;
 import com.india.idro.model.Camp;
+import com.india.idro.model.GeoPoints;
 import com.india.idro.model.Stock;
 import com.india.idro.model.enums.CampStatus;
+import com.india.idro.repository.AlertRepository;
 import com.india.idro.repository.CampRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -18,6 +36,12 @@ import lombok.RequiredArgsConstructor;
 public class CampService {
 
     private final CampRepository campRepository;
+    private final ChangeEventPublisher changePublisher;
+    private final AlertRepository alertRepository;
+    private final MongoTemplate mongoTemplate;
+
+    // Upper bound for a single page, whatever the client asks for
+    private static final int MAX_PAGE_SIZE = 500;
 
     // Create new camp
     public Camp createCamp(Camp camp) {
@@ -27,7 +51,42 @@ public class CampService {
                 throw new IllegalArgumentException("Injured count cannot exceed current population");
             }
         }
-        return campRepository.save(camp);
+        Camp saved = campRepository.save(camp);
+        changePublisher.created(ChangeEventPublisher.CAMP, saved.getId(), saved);
+        return saved;
+    }
+
+    // Camps within radiusKm of a point, nearest first
+    public List<Camp> getCampsNear(double latitude, double longitude, double radiusKm, int limit) {
+        GeoJsonPoint point = GeoPoints.of(latitude, longitude);
+        if (point == null) {
+            throw new BadRequestException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        if (radiusKm <= 0) {
+            throw new BadRequestException("radiusKm must be positive");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return campRepository.findNear(point, radiusKm * 1000, PageRequest.of(0, size));
+    }
+
+    // Camps within radiusKm of an alert's location, nearest first
+    public List<Camp> getCampsNearAlert(String alertId, double radiusKm, int limit) {
+        Alert alert = alertRepository.findById(alertId)
+                .orElseThrow(() -> new ResourceNotFoundException("Alert", "id", alertId));
+        if (alert.getLatitude() == null || alert.getLongitude() == null) {
+            throw new BadRequestException("Alert " + alertId + " has no coordinates");
+        }
+        return getCampsNear(alert.getLatitude(), alert.getLongitude(), radiusKm, limit);
+    }
+
+    // Camps inside a latitude/longitude box (map viewport)
+    public List<Camp> getCampsWithinBox(double minLat, double minLon, double maxLat, double maxLon) {
+        return campRepository.findWithinBox(minLat, minLon, maxLat, maxLon);
+    }
+
+    // Camps inside a polygon of [longitude, latitude] points
+    public List<Camp> getCampsWithinPolygon(List<double[]> coordinates) {
+        return campRepository.findWithin(GeoPoints.polygon(coordinates));
     }
 
     // Get all camps
@@ -35,6 +94,25 @@ public class CampService {
         return campRepository.findAllByOrderByUrgencyScoreDesc();
     }
 
+    // Get one page of camps (urgency DESC) after an opaque cursor; alertId null = all camps
+    public PageResponse<Camp> getCampPage(String alertId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // Fetch one extra camp to know whether another page follows
+        List<Camp> camps = campRepository.findPage(alertId, CampCursor.decode(cursor), pageSize + 1);
+        String nextCursor = null;
+        if (camps.size() > pageSize) {
+            camps = camps.subList(0, pageSize);
+            nextCursor = CampCursor.after(camps.get(pageSize - 1)).encode();
+        }
+        return PageResponse.ofCursor(camps, pageSize, nextCursor);
+    }
+
+    // Stream camps (urgency DESC) from a Mongo cursor; caller must close the stream
+    public Stream<Camp> streamCamps(String alertId) {
+        return campRepository.streamAll(alertId);
+    }
+
     // Get camp by ID
     public Optional<Camp> getCampById(String id) {
         return campRepository.findById(id);
@@ -66,7 +144,9 @@ public class CampService {
         return campRepository.findByUrgencyScoreGreaterThanEqual(threshold);
     }
 
-    // Update camp
+    // Update camp. If the body carries the version the client read, the save only
+    // matches that version and fails with 409 when the camp has changed since;
+    // without one the update overwrites whatever is stored.
     public Camp updateCamp(String id, Camp updatedCamp) {
         // Validation: Injured count cannot exceed population
         if (updatedCamp.getPopulation() != null) {
@@ -77,6 +157,7 @@ public class CampService {
 
         return campRepository.findById(id)
                 .map(existingCamp -> {
+                    Map<String, Object> before = changePublisher.snapshot(existingCamp);
                     existingCamp.setName(updatedCamp.getName());
                     existingCamp.setStatus(updatedCamp.getStatus());
                     existingCamp.setUrgencyScore(updatedCamp.getUrgencyScore());
@@ -88,44 +169,61 @@ public class CampService {
                     existingCamp.setImage(updatedCamp.getImage());
                     existingCamp.setLatitude(updatedCamp.getLatitude());
                     existingCamp.setLongitude(updatedCamp.getLongitude());
-                    return campRepository.save(existingCamp);
+                    if (updatedCamp.getVersion() != null) {
+                        existingCamp.setVersion(updatedCamp.getVersion());
+                    }
+                    Camp saved = campRepository.save(existingCamp);
+                    changePublisher.updated(ChangeEventPublisher.CAMP, id, before, saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Camp", "id", id));
     }
 
     // Update camp status only
     public Camp updateCampStatus(String id, CampStatus status) {
-        return campRepository.findById(id)
-                .map(camp -> {
-                    camp.setStatus(status);
-                    return campRepository.save(camp);
-                })
-                .orElseThrow(() -> new ResourceNotFoundException("Camp", "id", id));
+        return patchCamp(id, new Update().set("status", status), camp -> camp.setStatus(status));
     }
 
     // Update camp stock
     public Camp updateCampStock(String id, Stock stock) {
-        return campRepository.findById(id)
-                .map(camp -> {
-                    camp.setStock(stock);
-                    return campRepository.save(camp);
-                })
-                .orElseThrow(() -> new ResourceNotFoundException("Camp", "id", id));
+        return patchCamp(id, new Update().set("stock", stock), camp -> camp.setStock(stock));
     }
 
     // Update camp population
     public Camp updateCampPopulation(String id, Integer population) {
-        return campRepository.findById(id)
-                .map(camp -> {
-                    camp.setPopulation(population);
-                    return campRepository.save(camp);
-                })
-                .orElseThrow(() -> new ResourceNotFoundException("Camp", "id", id));
+        return patchCamp(id, new Update().set("population", population), camp -> camp.setPopulation(population));
+    }
+
+    /**
+     * Single-field update in one round trip: $set the field, bump version and
+     * updatedAt, and get the previous document back for the change event.
+     * Concurrent patches to different fields no longer overwrite each other,
+     * and a versioned updateCamp based on an older read fails.
+     */
+    private Camp patchCamp(String id, Update update, Consumer<Camp> apply) {
+        LocalDateTime now = LocalDateTime.now();
+        Camp camp = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(id)),
+                update.inc("version", 1).set("updatedAt", now),
+                FindAndModifyOptions.options().returnNew(false),
+                Camp.class);
+        if (camp == null) {
+            throw new ResourceNotFoundException("Camp", "id", id);
+        }
+
+        Map<String, Object> before = changePublisher.snapshot(camp);
+        apply.accept(camp);
+        camp.setVersion(camp.getVersion() != null ? camp.getVersion() + 1 : 1L);
+        camp.setUpdatedAt(now);
+        changePublisher.updated(ChangeEventPublisher.CAMP, id, before, camp);
+        return camp;
     }
 
     // Delete camp
     public void deleteCamp(String id) {
+        Camp existing = campRepository.findById(id).orElse(null);
         campRepository.deleteById(id);
+        changePublisher.deleted(ChangeEventPublisher.CAMP, id, existing);
     }
 
     // Get total count of camps
@@ -135,6 +233,6 @@ public class CampService {
 
     // Get count of critical camps
     public long getCriticalCampCount() {
-        return campRepository.findCriticalCamps().size();
+        return campRepository.countCriticalCamps();
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.india.idro.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.india.idro.model.Camp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Merges high-frequency camp updates relayed from STOMP clients (/app/camp)
+ * before they are broadcast.
+ *
+ * Responsibilities:
+ * - Keep only the latest state per camp id within each window
+ * - At the end of the window, publish one field-level diff per camp against
+ * the last state published for it by any path, including REST saves
+ * (kept by ChangeEventPublisher, which forgets deleted camps)
+ *
+ * A field team pushing stock every second therefore costs subscribers at most
+ * one frame per camp per window, and unchanged fields are never resent.
+ * With idro.realtime.coalesce.enabled=false every update is published at once.
+ *
+ * Metrics: idro.realtime.camp-updates.coalesced counts updates superseded
+ * within a window.
+ */
+@Service
+public class CampUpdateCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CampUpdateCoalescer.class);
+
+    private final ChangeEventPublisher changePublisher;
+    private final boolean enabled;
+    private final Counter coalesced;
+
+    // Latest state per camp id received in the current window
+    private final Map<String, Map<String, Object>> latest = new ConcurrentHashMap<>();
+
+    public CampUpdateCoalescer(ChangeEventPublisher changePublisher, MeterRegistry meterRegistry,
+            @Value("${idro.realtime.coalesce.enabled:true}") boolean enabled) {
+        this.changePublisher = changePublisher;
+        this.enabled = enabled;
+        this.coalesced = Counter.builder("idro.realtime.camp-updates.coalesced")
+                .description("Camp updates merged into a later update before broadcast")
+                .register(meterRegistry);
+        logger.info("🧮 Camp update coalescing: {}", enabled ? "enabled" : "disabled");
+    }
+
+    /**
+     * Queue a camp's full state for the current window; an earlier state for
+     * the same camp in this window is replaced.
+     */
+    public void submit(Camp camp) {
+        if (camp == null || camp.getId() == null) {
+            return;
+        }
+        Map<String, Object> state = changePublisher.snapshot(camp);
+        if (!enabled) {
+            changePublisher.publishCampState(camp.getId(), state);
+            return;
+        }
+        if (latest.put(camp.getId(), state) != null) {
+            coalesced.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idro.realtime.coalesce.window-ms:250}")
+    public synchronized void flush() {
+        for (String campId : latest.keySet()) {
+            Map<String, Object> state = latest.remove(campId);
+            if (state == null) {
+                continue;
+            }
+            changePublisher.publishCampState(campId, state);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.india.idro.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.india.idro.dto.ChangeEvent;
+import com.india.idro.dto.ChangeFeedResponse;
+import com.india.idro.dto.GeoTile;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Publishes camp/alert/action changes as compact deltas over STOMP.
+ * 
+ * Responsibilities:
+ * - Assign a gap-free sequence number to every change
+ * - Diff before/after snapshots so updates carry only changed fields
+ * - Keep the most recent events in a replay buffer for resuming clients
+ * - Remember the last published state of each camp as the diff base for
+ * relayed updates (see {@link #publishCampState})
+ * - Route each event to its global topic plus mission and geo-tile topics
+ * - Re-publish each event as a Spring application event for in-process listeners
+ *
+ * Only sequence assignment and the buffer/route bookkeeping happen under the
+ * publish lock. Broker sends and application events are handed, in sequence
+ * order, to one dispatch thread, so writers never wait on broker I/O or
+ * listeners. If the dispatch queue (idro.realtime.dispatch-queue-capacity)
+ * is full, the event is only kept in the replay buffer; clients see the gap
+ * and resume.
+ * 
+ * Write paths call {@link #snapshot(Object)} before mutating an entity and
+ * {@link #updated} after saving it. When idro.realtime.source is
+ * "change-stream", those calls are ignored and MongoChangeStreamListener
+ * publishes every change (from any writer or node) via {@link #publishChange}.
+ *
+ * Scoped destinations, computed from the entity's full state:
+ * - /topic/missions/{alertId}/camps|alerts|actions (Camp.alertId, Action.alertId, Alert.id)
+ * - /topic/tiles/{zoom}/{x}/{y}/camps|alerts (latitude/longitude, see GeoTile)
+ * An entity that moves to another mission or tile is also sent to the old
+ * destination, so those subscribers see it leave. When the caller has no
+ * "before" state (change stream updates and deletes), the last route this
+ * process published the entity under is used instead; after a restart that
+ * is unknown until the entity's first change, which then reaches only its
+ * current destinations.
+ */
+@Service
+public class ChangeEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventPublisher.class);
+
+    public static final String CAMP = "camp";
+    public static final String ALERT = "alert";
+    public static final String ACTION = "action";
+
+    // Entity -> topic name; actions carry no coordinates, so no tile topics
+    private static final Map<String, String> TOPICS = Map.of(
+            CAMP, "camps",
+            ALERT, "alerts",
+            ACTION, "actions");
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int bufferSize;
+    private final int tileZoom;
+
+    // False when the Mongo change stream is the source of events
+    private final boolean writePathEnabled;
+
+    // New per process start, so clients can tell a restarted sequence from a gap
+    private final String epoch = UUID.randomUUID().toString();
+
+    // Guarded by "this": sequence assignment, buffering and dispatch hand-off happen in order
+    private final ArrayDeque<ChangeEvent> replayBuffer = new ArrayDeque<>();
+    private long sequence;
+
+    // Guarded by "this": last published state per camp id, whichever path published it
+    private final Map<String, Map<String, Object>> campStates = new HashMap<>();
+
+    // Guarded by "this": last route per "entity:id", the fallback previous route
+    private final Map<String, Route> lastRoutes = new HashMap<>();
+
+    // One thread, so sends and listener calls keep sequence order
+    private final ExecutorService dispatcher;
+
+    public ChangeEventPublisher(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${idro.realtime.replay-buffer-size:10000}") int bufferSize,
+            @Value("${idro.realtime.source:write-path}") String source,
+            @Value("${idro.realtime.tile-zoom:8}") int tileZoom,
+            @Value("${idro.realtime.dispatch-queue-capacity:10000}") int dispatchQueueCapacity) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.tileZoom = tileZoom;
+        this.writePathEnabled = !MongoChangeStreamListener.SOURCE.equals(source);
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, dispatchQueueCapacity)),
+                new CustomizableThreadFactory("change-dispatch-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Capture an entity's JSON view before it is modified.
+     */
+    public Map<String, Object> snapshot(Object entity) {
+        return entity != null ? objectMapper.convertValue(entity, MAP_TYPE) : null;
+    }
+
+    public void created(String entity, String id, Object document) {
+        if (writePathEnabled) {
+            Map<String, Object> state = snapshot(document);
+            publish(entity, ChangeEvent.Type.CREATED, id, null, document, state, route(entity, id, state), null);
+        }
+    }
+
+    /**
+     * Publish only the fields that differ between the snapshot and the saved
+     * entity. Nothing is sent if no field changed. A null snapshot sends all fields.
+     */
+    public void updated(String entity, String id, Map<String, Object> before, Object after) {
+        if (!writePathEnabled) {
+            return;
+        }
+        Map<String, Object> current = snapshot(after);
+        Map<String, Object> changes = diff(before, current);
+        if (!changes.isEmpty()) {
+            publish(entity, ChangeEvent.Type.UPDATED, id, changes, null, current,
+                    route(entity, id, current), route(entity, id, before));
+        }
+    }
+
+    public void deleted(String entity, String id) {
+        deleted(entity, id, null);
+    }
+
+    /**
+     * Publish a deletion, also to the scoped topics of the deleted document.
+     */
+    public void deleted(String entity, String id, Object document) {
+        if (writePathEnabled) {
+            publish(entity, ChangeEvent.Type.DELETED, id, null, null, null, null,
+                    route(entity, id, snapshot(document)));
+        }
+    }
+
+    /**
+     * Publish a change regardless of idro.realtime.source. Used by the change
+     * stream listener and for unpersisted updates relayed from STOMP clients.
+     *
+     * @param state the entity's full current state (routes to scoped topics);
+     *              null publishes to the global topic and the entity's last
+     *              known scoped topics
+     */
+    public void publishChange(String entity, ChangeEvent.Type type, String id,
+            Map<String, Object> changes, Object payload, Map<String, Object> state) {
+        publish(entity, type, id, changes, payload, state, route(entity, id, state), null);
+    }
+
+    /**
+     * Publish the fields of a camp's full state that differ from the last
+     * state published for it by any path (REST, change stream or relay).
+     * Used for camp updates relayed from STOMP clients, which are not
+     * persisted and so have no saved "before" to diff against.
+     */
+    public synchronized void publishCampState(String id, Map<String, Object> state) {
+        Map<String, Object> last = campStates.get(id);
+        Map<String, Object> changes = diff(last, state);
+        if (!changes.isEmpty()) {
+            publish(CAMP, ChangeEvent.Type.UPDATED, id, changes, null, state,
+                    route(CAMP, id, state), route(CAMP, id, last));
+        }
+    }
+
+    /**
+     * Events after {@code since}. Requires a reset if the client is from
+     * another epoch or the events it missed have left the buffer.
+     */
+    public ChangeFeedResponse since(long since, String clientEpoch) {
+        return since(since, clientEpoch, null, null);
+    }
+
+    /**
+     * Like {@link #since(long, String)}, limited to one mission and/or tile
+     * for clients subscribed to scoped topics.
+     */
+    public synchronized ChangeFeedResponse since(long since, String clientEpoch, String missionId, String tile) {
+        ChangeEvent oldest = replayBuffer.peekFirst();
+        boolean otherEpoch = clientEpoch != null && !clientEpoch.equals(epoch);
+        boolean evicted = since < sequence && (oldest == null || oldest.getSeq() > since + 1);
+        if (otherEpoch || evicted || since > sequence) {
+            return new ChangeFeedResponse(epoch, sequence, true, List.of());
+        }
+
+        List<ChangeEvent> events = new ArrayList<>();
+        for (ChangeEvent event : replayBuffer) {
+            if (event.getSeq() > since
+                    && (missionId == null || missionId.equals(event.getMissionId()))
+                    && (tile == null || tile.equals(event.getTile()))) {
+                events.add(event);
+            }
+        }
+        return new ChangeFeedResponse(epoch, sequence, false, events);
+    }
+
+    private synchronized void publish(String entity, ChangeEvent.Type type, String id,
+            Map<String, Object> changes, Object payload, Map<String, Object> state,
+            Route current, Route previous) {
+        rememberState(entity, type, id, changes, state);
+
+        String routeKey = entity + ":" + id;
+        if (previous == null) {
+            previous = lastRoutes.get(routeKey);
+        }
+        if (type == ChangeEvent.Type.DELETED) {
+            lastRoutes.remove(routeKey);
+        } else if (current != null) {
+            lastRoutes.put(routeKey, current);
+        }
+
+        Route route = current != null ? current : previous;
+        ChangeEvent event = new ChangeEvent(++sequence, epoch, entity, type, id, changes, payload,
+                LocalDateTime.now(), route != null ? route.missionId() : null,
+                route != null && route.tile() != null ? route.tile().toString() : null);
+
+        replayBuffer.addLast(event);
+        if (replayBuffer.size() > bufferSize) {
+            replayBuffer.removeFirst();
+        }
+
+        Set<String> destinations = destinations(entity, current, previous);
+        try {
+            dispatcher.execute(() -> dispatch(event, destinations));
+        } catch (RejectedExecutionException e) {
+            // Clients detect the gap and catch up from the replay buffer
+            logger.error("❌ Change dispatch queue full, {} {} change #{} not pushed", entity, type, event.getSeq());
+        }
+    }
+
+    // Dispatch thread only, in sequence order
+    private void dispatch(ChangeEvent event, Set<String> destinations) {
+        for (String destination : destinations) {
+            try {
+                messagingTemplate.convertAndSend(destination, event);
+            } catch (Exception e) {
+                // Clients detect the gap and catch up from the replay buffer
+                logger.error("❌ Failed to push {} {} change #{} to {}: {}", event.getEntity(), event.getType(),
+                        event.getSeq(), destination, e.getMessage());
+            }
+        }
+
+        // In-process listeners (derived views); later events wait for them, so keep them quick
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (Exception e) {
+            logger.error("❌ Change listener failed for {} {} change #{}: {}", event.getEntity(), event.getType(),
+                    event.getSeq(), e.getMessage());
+        }
+    }
+
+    private void rememberState(String entity, ChangeEvent.Type type, String id,
+            Map<String, Object> changes, Map<String, Object> state) {
+        if (!CAMP.equals(entity) || id == null) {
+            return;
+        }
+        if (type == ChangeEvent.Type.DELETED) {
+            campStates.remove(id);
+        } else if (state != null) {
+            campStates.put(id, state);
+        } else if (changes != null) {
+            // Delta without a full state: apply it to what we know, if anything
+            campStates.computeIfPresent(id, (key, known) -> {
+                Map<String, Object> merged = new HashMap<>(known);
+                merged.putAll(changes);
+                return merged;
+            });
+        }
+    }
+
+    // ============================================================
+    // Topic routing
+    // ============================================================
+
+    private record Route(String missionId, GeoTile tile) {
+    }
+
+    private Route route(String entity, String id, Map<String, Object> state) {
+        if (state == null) {
+            return null;
+        }
+        String missionId = ALERT.equals(entity) ? id : asString(state.get("alertId"));
+        GeoTile tile = ACTION.equals(entity) ? null
+                : GeoTile.of(asDouble(state.get("latitude")), asDouble(state.get("longitude")), tileZoom);
+        return new Route(missionId, tile);
+    }
+
+    private static Set<String> destinations(String entity, Route current, Route previous) {
+        String topic = TOPICS.get(entity);
+        Set<String> destinations = new LinkedHashSet<>();
+        destinations.add("/topic/" + topic);
+        for (Route route : new Route[] { current, previous }) {
+            if (route == null) {
+                continue;
+            }
+            if (route.missionId() != null) {
+                destinations.add("/topic/missions/" + route.missionId() + "/" + topic);
+            }
+            if (route.tile() != null) {
+                destinations.add("/topic/tiles/" + route.tile() + "/" + topic);
+            }
+        }
+        return destinations;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static Double asDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    /**
+     * Fields of {@code after} that differ from {@code before} (all of them if
+     * before is null); removed fields map to null.
+     */
+    static Map<String, Object> diff(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (after == null) {
+            return changes;
+        }
+        if (before == null) {
+            changes.putAll(after);
+            return changes;
+        }
+
+        Set<String> keys = new HashSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        for (String key : keys) {
+            Object newValue = after.get(key);
+            if (!Objects.equals(before.get(key), newValue)) {
+                changes.put(key, newValue);
+            }
+        }
+        return changes;
+    }
+}
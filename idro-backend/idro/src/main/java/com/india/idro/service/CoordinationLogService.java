@@ -0,0 +1,189 @@
+package com.india.idro.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.india.idro.dto.PageResponse;
+import com.india.idro.model.CoordinationMessage;
+import com.india.idro.repository.CoordinationMessageRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only log of coordination chat messages.
+ *
+ * Responsibilities:
+ * - Assign each message a sequence number on receipt from the shared counter
+ * document (one findAndModify), so numbers are unique across nodes and restarts
+ * - Persist messages to coordination_messages in batches off the broadcast path
+ * - Serve "messages since sequence N" pages to reconnecting clients
+ *
+ * Messages waiting for the next flush are included in {@link #since} results,
+ * so a client never misses a message that was already broadcast by this node.
+ * Another node's message may become readable up to one flush after a later
+ * number; clients therefore resume a little before their last sequence and
+ * de-duplicate by sequence.
+ *
+ * No sequence can be allocated while Mongo is unreachable, so messages are
+ * rejected (and never broadcast) then. If storage is slow, at most
+ * idro.coordination.max-pending numbered messages wait for their write;
+ * further messages are rejected rather than growing the heap without limit.
+ */
+@Service
+public class CoordinationLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoordinationLogService.class);
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final CoordinationMessageRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final ConcurrentLinkedQueue<CoordinationMessage> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    // Sequence assignment and enqueueing happen together, so pending is always in sequence order
+    private final Object appendLock = new Object();
+
+    public CoordinationLogService(CoordinationMessageRepository repository, MongoTemplate mongoTemplate,
+            @Value("${idro.coordination.batch-size:500}") int batchSize,
+            @Value("${idro.coordination.max-pending:50000}") int maxPending) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxPending = Math.max(this.batchSize, maxPending);
+
+        // Messages stored before the shared counter existed keep their numbers
+        long stored = repository.findFirstBySequenceNotNullOrderBySequenceDesc()
+                .map(CoordinationMessage::getSequence)
+                .orElse(0L);
+        repository.ensureSequenceAtLeast(stored);
+        logger.info("💬 Coordination log sequence continues after {}", stored);
+    }
+
+    /**
+     * Stamp a message with the next sequence number and queue it for storage.
+     * Costs one counter round trip; the message itself is written on the next flush.
+     *
+     * @throws IllegalStateException if max-pending messages are already
+     *                               waiting for storage
+     * @throws org.springframework.dao.DataAccessException if no sequence
+     *                                                     could be allocated
+     */
+    public CoordinationMessage append(CoordinationMessage message) {
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            logger.error("❌ Coordination log has {} unstored messages, rejecting new message", maxPending);
+            throw new IllegalStateException("Coordination log is not accepting messages while storage is unavailable");
+        }
+        message.setId(new ObjectId().toHexString());
+        message.setCreatedAt(LocalDateTime.now());
+        try {
+            synchronized (appendLock) {
+                message.setSequence(repository.nextSequence());
+                pending.add(message);
+            }
+        } catch (RuntimeException e) {
+            pendingCount.decrementAndGet();
+            logger.error("❌ Could not allocate a coordination sequence: {}", e.getMessage());
+            throw e;
+        }
+        return message;
+    }
+
+    /**
+     * Messages with sequence > since, oldest first. nextCursor holds the last
+     * returned sequence when more messages are available.
+     */
+    public PageResponse<CoordinationMessage> since(long since, int limit) {
+        int size = Math.min(Math.max(1, limit), MAX_PAGE_SIZE);
+
+        // Pending is read before the query: a message flushed in between is then
+        // in one of the two, while one appended after the snapshot is newer than
+        // anything the query can return
+        List<CoordinationMessage> unstored = pending.stream()
+                .filter(message -> message.getSequence() > since)
+                .toList();
+
+        // Stored and not-yet-flushed messages, de-duplicated by sequence
+        Map<Long, CoordinationMessage> merged = new TreeMap<>();
+        repository.findBySequenceGreaterThanOrderBySequenceAsc(since, PageRequest.of(0, size + 1))
+                .forEach(message -> merged.put(message.getSequence(), message));
+        unstored.forEach(message -> merged.putIfAbsent(message.getSequence(), message));
+
+        List<CoordinationMessage> messages = new ArrayList<>(merged.values());
+        boolean hasMore = messages.size() > size;
+        if (hasMore) {
+            messages = messages.subList(0, size);
+        }
+        String nextCursor = hasMore ? String.valueOf(messages.get(size - 1).getSequence()) : null;
+        return PageResponse.ofCursor(messages, size, nextCursor);
+    }
+
+    // ============================================================
+    // Batched persistence
+    // ============================================================
+
+    @Scheduled(fixedDelayString = "${idro.coordination.flush-interval-ms:500}")
+    public synchronized void flush() {
+        while (!pending.isEmpty()) {
+            List<CoordinationMessage> batch = new ArrayList<>(batchSize);
+            Iterator<CoordinationMessage> it = pending.iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                batch.add(it.next());
+            }
+            if (!insert(batch)) {
+                return;
+            }
+            // Dequeued only once stored, so since() sees every message in between
+            batch.forEach(message -> pending.poll());
+            pendingCount.addAndGet(-batch.size());
+        }
+    }
+
+    private boolean insert(List<CoordinationMessage> batch) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CoordinationMessage.class)
+                    .insert(batch)
+                    .execute();
+            return true;
+        } catch (BulkOperationException e) {
+            // Ids are assigned up front, so a retried batch reports already-stored messages as duplicates
+            if (e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY)) {
+                return true;
+            }
+            logger.error("❌ Failed to store {} coordination messages, will retry: {}", batch.size(), e.getMessage());
+            return false;
+        } catch (DataAccessException e) {
+            logger.error("❌ Failed to store {} coordination messages, will retry: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,129 @@
+package com.india.idro.service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.india.idro.dto.ChangeEvent;
+import com.india.idro.dto.DashboardSnapshot;
+
+/**
+ * Serves dashboard stats and the threat prediction from an in-memory
+ * snapshot instead of querying MongoDB on every request.
+ *
+ * Responsibilities:
+ * - Recompute both on startup, at least every refresh-ms, and within
+ * debounce-ms of a camp/alert change that can move a counter
+ * - Publish each result as one immutable DashboardSnapshot (a volatile
+ * swap, so readers never lock and never see half an update)
+ * - Tag each part with a content ETag for If-None-Match revalidation
+ *
+ * A burst of changes costs one recompute per debounce window, however many
+ * dashboards are open. Volunteer registrations raise no change events and
+ * show up on the periodic refresh.
+ */
+@Service
+public class DashboardSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardSnapshotService.class);
+
+    // Updated fields that feed a counter (critical camps, open missions)
+    private static final Set<String> COUNTED_FIELDS = Set.of("urgencyScore", "missionStatus");
+
+    private final AnalyticsService analyticsService;
+    private final ObjectMapper objectMapper;
+    private final long refreshMs;
+
+    private volatile DashboardSnapshot snapshot;
+    private volatile boolean dirty;
+
+    public DashboardSnapshotService(AnalyticsService analyticsService, ObjectMapper objectMapper,
+            @Value("${idro.analytics.snapshot.refresh-ms:30000}") long refreshMs) {
+        this.analyticsService = analyticsService;
+        this.objectMapper = objectMapper;
+        this.refreshMs = refreshMs;
+    }
+
+    /**
+     * The latest snapshot; computed on the calling thread only if none exists yet.
+     */
+    public DashboardSnapshot current() {
+        DashboardSnapshot current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Recompute and publish a new snapshot.
+     */
+    public synchronized DashboardSnapshot refresh() {
+        // Cleared first: a change landing mid-compute marks it dirty again
+        dirty = false;
+        Map<String, Object> stats = Map.copyOf(analyticsService.getDashboardStats());
+        Map<String, String> prediction = Map.copyOf(analyticsService.predictNextThreat());
+        snapshot = new DashboardSnapshot(stats, etag(stats), prediction, etag(prediction), Instant.now());
+        return snapshot;
+    }
+
+    // ============================================================
+    // Triggers
+    // ============================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshQuietly();
+    }
+
+    // Runs on the change publisher's dispatch thread: only flags the snapshot
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        if (ChangeEventPublisher.ACTION.equals(event.getEntity())) {
+            return;
+        }
+        if (event.getType() != ChangeEvent.Type.UPDATED || (event.getChanges() != null
+                && event.getChanges().keySet().stream().anyMatch(COUNTED_FIELDS::contains))) {
+            dirty = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idro.analytics.snapshot.debounce-ms:1000}")
+    public void refreshIfDue() {
+        DashboardSnapshot current = snapshot;
+        if (dirty || current == null || current.computedAt().plusMillis(refreshMs).isBefore(Instant.now())) {
+            refreshQuietly();
+        }
+    }
+
+    // A failed recompute keeps serving the previous snapshot
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            dirty = true;
+            logger.error("❌ Dashboard snapshot refresh failed, serving the previous one: {}", e.getMessage());
+        }
+    }
+
+    private String etag(Object body) {
+        try {
+            // Keys sorted so equal figures hash alike on every node
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsBytes(body)) + "\"";
+        } catch (JsonProcessingException e) {
+            // Unique per snapshot: clients just revalidate more often
+            return "\"" + System.nanoTime() + "\"";
+        }
+    }
+}
@@ -8,8 +8,14 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.india.idro.exception.ConflictException;
 import com.india.idro.model.GovernmentAgency;
 import com.india.idro.model.ResourceItem;
 import com.india.idro.model.enums.AgencyType;
@@ -17,6 +23,7 @@ import com.india.idro.model.enums.AvailabilityStatus;
 import com.india.idro.model.enums.CoverageRadius;
 import com.india.idro.model.enums.ResponseTime;
 import com.india.idro.repository.GovernmentAgencyRepository;
+import com.india.idro.service.matching.ResponderMatchingService;
 
 import jakarta.annotation.PostConstruct;
 
@@ -26,6 +33,15 @@ public class GovernmentAgencyService {
     @Autowired
     private GovernmentAgencyRepository agencyRepository;
 
+    @Autowired
+    private ResourceAvailabilityService availabilityService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ResponderMatchingService matchingService;
+
     @PostConstruct
     public void initializeDemoAgencies() {
         // Check if demo agencies already exist
@@ -43,6 +59,7 @@ public class GovernmentAgencyService {
                         "NDRF Delhi",
                         AgencyType.NDRF,
                         "New Delhi",
+                        28.6139, 77.209,
                         "+91-11-2671-9391",
                         "Northern India",
                         Arrays.asList("Flood", "Earthquake", "Building Collapse", "Landslide")),
@@ -51,6 +68,7 @@ public class GovernmentAgencyService {
                         "Emergency Medical Team Mumbai",
                         AgencyType.MEDICAL_TEAM,
                         "Mumbai",
+                        19.076, 72.8777,
                         "+91-22-2307-7000",
                         "Western India",
                         Arrays.asList("Medical Emergency", "Epidemic", "Mass Casualty", "Health Crisis")),
@@ -59,6 +77,7 @@ public class GovernmentAgencyService {
                         "Fire & Rescue Services Bangalore",
                         AgencyType.FIRE_TEAM,
                         "Bangalore",
+                        12.9716, 77.5946,
                         "+91-80-2222-2222",
                         "Southern India",
                         Arrays.asList("Fire", "Building Collapse", "Chemical Hazard", "Rescue Operations")),
@@ -67,6 +86,7 @@ public class GovernmentAgencyService {
                         "Police Disaster Management Chennai",
                         AgencyType.OTHER,
                         "Chennai",
+                        13.0827, 80.2707,
                         "+91-44-2345-0000",
                         "Southern India",
                         Arrays.asList("Cyclone", "Flood", "Crowd Management", "Law & Order")));
@@ -76,12 +96,15 @@ public class GovernmentAgencyService {
     }
 
     private GovernmentAgency createDemoAgency(String agencyId, String agencyName, AgencyType agencyType,
-            String location, String contactNumber, String operatingRegion, List<String> supportedDisasterTypes) {
+            String location, double latitude, double longitude, String contactNumber, String operatingRegion,
+            List<String> supportedDisasterTypes) {
         GovernmentAgency agency = new GovernmentAgency();
         agency.setAgencyId(agencyId);
         agency.setAgencyName(agencyName);
         agency.setAgencyType(agencyType);
         agency.setLocation(location);
+        agency.setLatitude(latitude);
+        agency.setLongitude(longitude);
         agency.setContactNumber(contactNumber);
         agency.setPassword("123"); // Demo password
         agency.setOperatingRegion(operatingRegion);
@@ -138,41 +161,64 @@ public class GovernmentAgencyService {
 
     public GovernmentAgency updateAvailability(String agencyId, AvailabilityStatus availabilityStatus,
             ResponseTime responseTime, CoverageRadius coverageRadius) {
-        Optional<GovernmentAgency> agencyOpt = agencyRepository.findByAgencyId(agencyId);
-
-        if (agencyOpt.isEmpty()) {
-            return null;
-        }
-
-        GovernmentAgency agency = agencyOpt.get();
-
+        Update update = new Update().set("lastUpdated", LocalDateTime.now());
         if (availabilityStatus != null)
-            agency.setAvailabilityStatus(availabilityStatus);
+            update.set("availabilityStatus", availabilityStatus);
         if (responseTime != null)
-            agency.setResponseTime(responseTime);
+            update.set("responseTime", responseTime);
         if (coverageRadius != null)
-            agency.setCoverageRadius(coverageRadius);
+            update.set("coverageRadius", coverageRadius);
 
-        agency.setLastUpdated(LocalDateTime.now());
+        GovernmentAgency saved = patch(agencyId, update);
 
-        return agencyRepository.save(agency);
+        // Owner status is denormalized into the availability rows
+        if (saved != null && availabilityStatus != null) {
+            availabilityService.updateOwnerStatus(ResourceAvailabilityService.AGENCY_OWNER, agencyId,
+                    availabilityStatus);
+        }
+        return saved;
     }
 
     public GovernmentAgency updateResources(String agencyId, Map<String, List<ResourceItem>> resources) {
-        Optional<GovernmentAgency> agencyOpt = agencyRepository.findByAgencyId(agencyId);
-
-        if (agencyOpt.isEmpty()) {
-            return null;
+        Update update = new Update().set("lastUpdated", LocalDateTime.now());
+        Criteria criteria = Criteria.where("agencyId").is(agencyId);
+        if (resources != null) {
+            update.set("resources", resources);
+            // Quantities are absolute; while a hold is open, a later release would add its stock back on top of them
+            criteria.andOperator(ResourceReservationService.noOpenHolds());
         }
 
-        GovernmentAgency agency = agencyOpt.get();
-
-        if (resources != null) {
-            agency.setResources(resources);
+        GovernmentAgency saved = patch(Query.query(criteria), update);
+        if (saved == null && resources != null && agencyRepository.findByAgencyId(agencyId).isPresent()) {
+            throw new ConflictException("Agency " + agencyId
+                    + " has open reservations; confirm or release them before editing stock");
+        }
+        if (saved != null) {
+            availabilityService.sync(saved);
         }
+        return saved;
+    }
 
-        agency.setLastUpdated(LocalDateTime.now());
+    // Base location for nearest-responder matching
+    public GovernmentAgency updateLocation(String agencyId, double latitude, double longitude) {
+        return patch(agencyId, new Update()
+                .set("latitude", latitude)
+                .set("longitude", longitude)
+                .set("lastUpdated", LocalDateTime.now()));
+    }
 
-        return agencyRepository.save(agency);
+    // One targeted $set instead of load + full save; null if the agency does not exist
+    private GovernmentAgency patch(String agencyId, Update update) {
+        return patch(Query.query(Criteria.where("agencyId").is(agencyId)), update);
+    }
+
+    private GovernmentAgency patch(Query query, Update update) {
+        GovernmentAgency updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), GovernmentAgency.class);
+        if (updated != null) {
+            // findAndModify raises no save events; keep the responder index current
+            matchingService.onSaved(updated);
+        }
+        return updated;
     }
 }
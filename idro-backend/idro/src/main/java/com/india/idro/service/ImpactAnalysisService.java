@@ -1,13 +1,26 @@
 package com.india.idro.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.india.idro.dto.AiPredictionRequestDTO;
@@ -30,15 +43,20 @@ import com.india.idro.service.ai.rules.UrgencyEvaluator;
  * Flow:
  * 1. Fetch Mission (Alert)
  * 2. Fetch Camps
- * 3. Call ML Server for each Camp
- * 4. Persist Predictions
- * 5. Aggregate Results
+ * 3. Reuse stored Predictions for unchanged Camps (incremental mode)
+ * 4. Call ML Server once per chunk of changed Camps (/predict/batch)
+ * 5. Persist Predictions (one bulk upsert per analysis)
+ * 6. Aggregate Results
  */
 @Service
 public class ImpactAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(ImpactAnalysisService.class);
 
+    // CampAiAnalysis.predictionSource: with and without an ML response
+    private static final String HYBRID_SOURCE = "Hybrid AI";
+    private static final String RULE_ENGINE_SOURCE = "Rule Engine";
+
     @Autowired
     private MlPredictionService mlPredictionService;
 
@@ -51,6 +69,17 @@ public class ImpactAnalysisService {
     @Autowired
     private CampAiPredictionRepository predictionRepository;
 
+    @Autowired
+    private MissionGapService gapService;
+
+    @Autowired
+    @Qualifier("impactAnalysisExecutor")
+    private ExecutorService analysisExecutor;
+
+    // Reuse stored predictions for camps whose inputs have not changed
+    @Value("${idro.analysis.incremental:true}")
+    private boolean incrementalEnabled;
+
     /**
      * Orchestrates the AI analysis for all camps under a mission.
      * Returns a structured response with mission stats and camp breakdown.
@@ -60,7 +89,26 @@ public class ImpactAnalysisService {
      * @throws RuntimeException if mission not found
      */
     public ImpactAnalysisResponseDTO analyzeMissionImpact(String missionId) {
-        logger.info("Starting impact analysis for mission ID: {}", missionId);
+        return analyzeMissionImpact(missionId, false);
+    }
+
+    /**
+     * Orchestrates the AI analysis for all camps under a mission.
+     * 
+     * In incremental mode only "dirty" camps are recomputed: a camp whose
+     * input fingerprint (see {@link #computeInputHash(Camp, Alert)}) matches
+     * its stored prediction is answered from that prediction without an ML
+     * call or a database write. A stored rule-engine-only prediction (made
+     * while ML was down) is reused only while the ML circuit is still not
+     * closed; once ML is back, such camps are recomputed.
+     * 
+     * @param missionId The ID of the mission (Alert) to analyze
+     * @param forceFull true to recompute every camp regardless of fingerprints
+     * @return Impact analysis response with camp-wise predictions
+     * @throws RuntimeException if mission not found
+     */
+    public ImpactAnalysisResponseDTO analyzeMissionImpact(String missionId, boolean forceFull) {
+        logger.info("Starting impact analysis for mission ID: {} (full: {})", missionId, forceFull);
 
         ImpactAnalysisResponseDTO response = new ImpactAnalysisResponseDTO();
         List<CampAiAnalysis> campAnalyses = new ArrayList<>();
@@ -90,20 +138,70 @@ public class ImpactAnalysisService {
             logger.info("Analyzing {} camps for mission {}", camps.size(), missionId);
 
             // ============================================================
-            // 3. Process Each Camp (Async)
+            // 3. Split Camps into Unchanged (reuse) and Dirty (recompute)
+            // ============================================================
+            Map<String, CampAiPrediction> previous = new HashMap<>();
+            if (incrementalEnabled && !forceFull) {
+                // Newest first, so the first prediction seen per camp wins
+                for (CampAiPrediction prediction : predictionRepository.findByMissionIdOrderByCreatedAtDesc(missionId)) {
+                    previous.putIfAbsent(prediction.getCampId(), prediction);
+                }
+            }
+
+            // Rule-engine fallbacks are only worth keeping while ML still cannot answer
+            boolean mlUp = mlPredictionService.isCircuitClosed();
+
+            Map<String, CampAiAnalysis> reused = new HashMap<>();
+            Map<String, String> inputHashes = new HashMap<>();
+            List<Camp> dirtyCamps = new ArrayList<>();
+            for (Camp camp : camps) {
+                String inputHash = computeInputHash(camp, mission);
+                inputHashes.put(camp.getId(), inputHash);
+
+                CampAiPrediction prior = previous.get(camp.getId());
+                if (prior != null && inputHash.equals(prior.getInputHash())
+                        && (!mlUp || HYBRID_SOURCE.equals(prior.getPredictionSource()))) {
+                    reused.put(camp.getId(), toAnalysis(camp, prior));
+                } else {
+                    dirtyCamps.add(camp);
+                }
+            }
+
+            logger.info("Mission {}: {} camps unchanged, {} to recompute",
+                    missionId, reused.size(), dirtyCamps.size());
+
+            // ============================================================
+            // 4. Batch ML Predictions (one call per chunk, dirty camps only)
             // ============================================================
-            List<CompletableFuture<CampAiAnalysis>> futures = camps.stream()
-                    .map(camp -> CompletableFuture.supplyAsync(() -> processCamp(camp, mission)))
+            List<AiPredictionRequestDTO> mlRequests = dirtyCamps.stream()
+                    .map(camp -> buildPredictionRequest(camp, mission))
                     .collect(Collectors.toList());
+            Map<String, AiPredictionResponseDTO> mlResults = mlPredictionService.predictBatch(mlRequests);
+
+            // ============================================================
+            // 5. Process Each Dirty Camp (Async, on the bounded analysis executor)
+            // ============================================================
+            Queue<CampAiPrediction> pendingPredictions = new ConcurrentLinkedQueue<>();
+            Map<String, CompletableFuture<CampAiAnalysis>> futures = new HashMap<>();
+            for (Camp camp : dirtyCamps) {
+                futures.put(camp.getId(), CompletableFuture.supplyAsync(
+                        () -> processCamp(camp, mission, mlResults.get(camp.getId()), inputHashes.get(camp.getId()),
+                                pendingPredictions),
+                        analysisExecutor));
+            }
 
-            // Wait for all to complete
-            campAnalyses = futures.stream()
-                    .map(CompletableFuture::join)
+            // Wait for all to complete, keeping the original camp order
+            campAnalyses = camps.stream()
+                    .map(camp -> reused.containsKey(camp.getId())
+                            ? reused.get(camp.getId())
+                            : futures.get(camp.getId()).join())
                     .filter(java.util.Objects::nonNull)
                     .collect(Collectors.toList());
 
+            savePredictions(missionId, pendingPredictions);
+
             // ============================================================
-            // 4. Aggregate & Populate Response
+            // 6. Aggregate & Populate Response
             // ============================================================
             response.setCampAnalysisList(campAnalyses);
 
@@ -119,6 +217,10 @@ public class ImpactAnalysisService {
             if (e instanceof RuntimeException && e.getMessage().contains("Mission not found")) {
                 throw (RuntimeException) e;
             }
+            // Rethrow if the analysis executor is saturated (ABORT policy)
+            if (e instanceof RejectedExecutionException) {
+                throw (RejectedExecutionException) e;
+            }
         }
 
         // Final safety check
@@ -144,7 +246,8 @@ public class ImpactAnalysisService {
     /**
      * Process a single camp: Rule Engine (Primary) + ML (Metadata)
      */
-    private CampAiAnalysis processCamp(Camp camp, Alert mission) {
+    private CampAiAnalysis processCamp(Camp camp, Alert mission, AiPredictionResponseDTO mlResponse,
+            String inputHash, Queue<CampAiPrediction> pendingPredictions) {
         try {
             // 1. Context Setup
             String urgencyStr = camp.getUrgency();
@@ -183,29 +286,15 @@ public class ImpactAnalysisService {
             // 5. Generate Concise, Rule-Based Explanations
             analysis.setExplanations(generateRuleExplanations(camp, ruleResult, urgencyStr));
 
-            // 6. ML Call & Hybrid Integration (Safety-First Merging)
-            try {
-                AiPredictionRequestDTO request = new AiPredictionRequestDTO();
-                request.setDisasterType(mission.getType() != null ? mission.getType().toString() : "Unknown");
-                request.setSeverity(mission.getMagnitude() != null ? mission.getMagnitude() : "Moderate");
-                request.setUrgency(mission.getUrgency() != null ? mission.getUrgency() : "Medium");
-                request.setAffectedCount(population);
-                request.setInjuredCount(injured);
-                request.setLatitude(camp.getLatitude() != null ? camp.getLatitude() : 0.0);
-                request.setLongitude(camp.getLongitude() != null ? camp.getLongitude() : 0.0);
-
-                AiPredictionResponseDTO mlResponse = mlPredictionService.predict(request);
-
-                if (mlResponse != null && mlResponse.getRequirements() != null) {
-                    analysis.setPredictionSource("Hybrid AI");
-                }
-            } catch (Exception mlEx) {
-                logger.warn("ML fallback to Rule Engine for camp {}: {}", camp.getId(), mlEx.getMessage());
-                analysis.setPredictionSource("Rule Engine");
+            // 6. Hybrid Integration (ML response fetched in batch beforehand)
+            if (mlResponse != null && mlResponse.getRequirements() != null) {
+                analysis.setPredictionSource(HYBRID_SOURCE);
+            } else {
+                analysis.setPredictionSource(RULE_ENGINE_SOURCE);
             }
 
-            // 9. Persist Prediction (mapped back to entity fields)
-            savePrediction(mission.getId(), camp.getId(), analysis, ruleResult);
+            // 7. Queue Prediction for the bulk write (mapped back to entity fields)
+            pendingPredictions.add(toPrediction(mission.getId(), camp.getId(), analysis, ruleResult, inputHash));
 
             return analysis;
 
@@ -215,6 +304,75 @@ public class ImpactAnalysisService {
         return null;
     }
 
+    /**
+     * Fingerprint of everything that feeds a camp's analysis: the camp's
+     * population, injured count, urgency, coordinates and medicine flag, plus
+     * the mission's type, magnitude and urgency. If none of these changed, the
+     * stored prediction is still valid.
+     */
+    private static String computeInputHash(Camp camp, Alert mission) {
+        String inputs = String.join("|",
+                String.valueOf(camp.getPopulation()),
+                String.valueOf(camp.getInjuredCount()),
+                String.valueOf(camp.getUrgency()),
+                String.valueOf(camp.getLatitude()),
+                String.valueOf(camp.getLongitude()),
+                String.valueOf(camp.isMedicinesNeeded()),
+                String.valueOf(mission.getType()),
+                String.valueOf(mission.getMagnitude()),
+                String.valueOf(mission.getUrgency()));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(inputs.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM; fall back to the raw inputs just in case
+            return inputs;
+        }
+    }
+
+    /**
+     * Rebuild the analysis for an unchanged camp from its stored prediction.
+     */
+    private static CampAiAnalysis toAnalysis(Camp camp, CampAiPrediction prediction) {
+        CampAiAnalysis analysis = new CampAiAnalysis();
+        analysis.setCampId(camp.getId());
+        analysis.setCampName(camp.getName());
+        analysis.setPopulation(camp.getPopulation() != null ? camp.getPopulation() : 0);
+        analysis.setInjuredCount(camp.getInjuredCount());
+
+        analysis.setFoodPackets(valueOrZero(prediction.getFoodPerDay()));
+        analysis.setWaterLiters(valueOrZero(prediction.getWaterPerDay()));
+        analysis.setBeds(valueOrZero(prediction.getBeds()));
+        analysis.setMedicalKits(valueOrZero(prediction.getMedicalKits()));
+        analysis.setVolunteers(valueOrZero(prediction.getVolunteers()));
+        analysis.setAmbulances(valueOrZero(prediction.getAmbulances()));
+
+        analysis.setUrgency(prediction.getUrgency());
+        analysis.setPredictionSource(prediction.getPredictionSource());
+        analysis.setExplanations(prediction.getExplanations());
+        return analysis;
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Build the ML request for a camp, tagged with its camp ID for batch mapping.
+     */
+    private AiPredictionRequestDTO buildPredictionRequest(Camp camp, Alert mission) {
+        AiPredictionRequestDTO request = new AiPredictionRequestDTO();
+        request.setCampId(camp.getId());
+        request.setDisasterType(mission.getType() != null ? mission.getType().toString() : "Unknown");
+        request.setSeverity(mission.getMagnitude() != null ? mission.getMagnitude() : "Moderate");
+        request.setUrgency(mission.getUrgency() != null ? mission.getUrgency() : "Medium");
+        request.setAffectedCount(camp.getPopulation() != null ? camp.getPopulation() : 0);
+        request.setInjuredCount(camp.getInjuredCount());
+        request.setLatitude(camp.getLatitude() != null ? camp.getLatitude() : 0.0);
+        request.setLongitude(camp.getLongitude() != null ? camp.getLongitude() : 0.0);
+        return request;
+    }
+
     /**
      * Generates concise, operational, human-readable bullet points based on rules.
      */
@@ -244,35 +402,44 @@ public class ImpactAnalysisService {
     }
 
     /**
-     * Persist prediction to database
+     * Persist all predictions of an analysis run in one unordered bulk upsert.
      */
-    private void savePrediction(String missionId, String campId, CampAiAnalysis analysis,
-            com.india.idro.dto.CampRequirementDTO rules) {
+    private void savePredictions(String missionId, Collection<CampAiPrediction> predictions) {
         try {
-            CampAiPrediction entity = new CampAiPrediction();
-            entity.setMissionId(missionId);
-            entity.setCampId(campId);
-
-            // Quantities from internal Rules (SSoT Mandated)
-            entity.setFoodPerDay(analysis.getFoodPackets());
-            entity.setWaterPerDay(analysis.getWaterLiters());
-            entity.setMedicalKits(analysis.getMedicalKits());
-            entity.setBeds(analysis.getBeds());
-            entity.setAmbulances(analysis.getAmbulances());
-            entity.setVolunteers(analysis.getVolunteers());
-
-            // Toilets still come from rules (no mandated formula yet)
-            entity.setToilets(rules.getToiletsRequired());
-
-            // From Analysis/Rule result
-            entity.setUrgency(analysis.getUrgency());
-            entity.setPredictionSource(analysis.getPredictionSource());
-            entity.setExplanations(analysis.getExplanations());
-
-            predictionRepository.save(entity);
-
+            int written = predictionRepository.upsertAll(predictions);
+            logger.debug("Upserted {} predictions for mission {}", written, missionId);
+            gapService.markMissionDirty(missionId);
         } catch (Exception e) {
-            logger.error("Error saving prediction for camp {}: {}", campId, e.getMessage());
+            logger.error("Error saving predictions for mission {}: {}", missionId, e.getMessage());
         }
     }
+
+    /**
+     * Map an analysis back to its prediction entity
+     */
+    private CampAiPrediction toPrediction(String missionId, String campId, CampAiAnalysis analysis,
+            com.india.idro.dto.CampRequirementDTO rules, String inputHash) {
+        CampAiPrediction entity = new CampAiPrediction();
+        entity.setMissionId(missionId);
+        entity.setCampId(campId);
+
+        // Quantities from internal Rules (SSoT Mandated)
+        entity.setFoodPerDay(analysis.getFoodPackets());
+        entity.setWaterPerDay(analysis.getWaterLiters());
+        entity.setMedicalKits(analysis.getMedicalKits());
+        entity.setBeds(analysis.getBeds());
+        entity.setAmbulances(analysis.getAmbulances());
+        entity.setVolunteers(analysis.getVolunteers());
+
+        // Toilets still come from rules (no mandated formula yet)
+        entity.setToilets(rules.getToiletsRequired());
+
+        // From Analysis/Rule result
+        entity.setUrgency(analysis.getUrgency());
+        entity.setPredictionSource(analysis.getPredictionSource());
+        entity.setExplanations(analysis.getExplanations());
+        entity.setInputHash(inputHash);
+
+        return entity;
+    }
 }
@@ -0,0 +1,243 @@
+package com.india.idro.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.india.idro.model.CampAiPrediction;
+import com.india.idro.model.MissionResourceGap;
+import com.india.idro.model.ResourceAvailability;
+import com.india.idro.model.ResourceReservation;
+import com.india.idro.model.enums.AvailabilityStatus;
+import com.india.idro.model.enums.ReservationStatus;
+import com.india.idro.repository.MissionResourceGapRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Materializes per-mission, per-resource unmet demand into
+ * mission_resource_gaps with a single server-side aggregation:
+ *
+ * camp_ai_predictions → unwind predicted needs → $group by (mission, resource)
+ * → $lookup stock held for the mission in resource_reservations
+ * → $lookup open stock in resource_availability → gap → $merge
+ *
+ * Responsibilities:
+ * - Refresh one mission after its predictions are written
+ * - Refresh all missions after any NGO/agency resource change (supply is global)
+ * - Serve the materialized table, so reads cost O(resources)
+ *
+ * Refreshes are requested by marking missions dirty and run by one worker
+ * (refreshDirty), so write paths never wait for the pipeline, bursts
+ * collapse into one run, and a single-mission run never interleaves with a
+ * full rebuild's cleanup. Rows are only replaced by a newer run, so a
+ * slower run on another node cannot overwrite fresher numbers.
+ */
+@Service
+@RequiredArgsConstructor
+public class MissionGapService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MissionGapService.class);
+
+    private static final String GAP_COLLECTION = "mission_resource_gaps";
+
+    // Prediction field -> resource_availability.resourceKey supplying it (null = not tracked as supply)
+    private static final Map<String, String> SUPPLY_KEYS = new LinkedHashMap<>();
+
+    static {
+        SUPPLY_KEYS.put("foodPerDay", "foodpackets");
+        SUPPLY_KEYS.put("waterPerDay", "drinkingwater");
+        SUPPLY_KEYS.put("medicalKits", "firstaidkits");
+        SUPPLY_KEYS.put("beds", null);
+        SUPPLY_KEYS.put("blankets", "blankets");
+        SUPPLY_KEYS.put("toilets", null);
+        SUPPLY_KEYS.put("powerUnits", null);
+        SUPPLY_KEYS.put("ambulances", "ambulances");
+        SUPPLY_KEYS.put("volunteers", "volunteers");
+    }
+
+    // Reservations whose stock is counted for their mission: held, or delivered
+    private static final List<String> RESERVED_STATUSES = List.of(ReservationStatus.HELD.name(),
+            ReservationStatus.CONFIRMED.name());
+
+    private final MongoTemplate mongoTemplate;
+    private final MissionResourceGapRepository gapRepository;
+
+    private final Set<String> dirtyMissions = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean allDirty = new AtomicBoolean(true);
+
+    // ============================================================
+    // Refresh requests
+    // ============================================================
+
+    public void markMissionDirty(String missionId) {
+        if (missionId != null) {
+            dirtyMissions.add(missionId);
+        }
+    }
+
+    public void markAllDirty() {
+        allDirty.set(true);
+    }
+
+    /**
+     * Recompute one mission now instead of on the next cycle. Runs through
+     * the same worker as the schedule, so it waits for a rebuild in progress.
+     */
+    public void refreshNow(String missionId) {
+        markMissionDirty(missionId);
+        refreshDirty();
+    }
+
+    // The first run (allDirty starts true) builds the whole table; failed work stays dirty for the next cycle
+    @Scheduled(fixedDelayString = "${idro.gaps.refresh-delay-ms:2000}")
+    public synchronized void refreshDirty() {
+        if (allDirty.getAndSet(false)) {
+            dirtyMissions.clear();
+            try {
+                refreshAll();
+            } catch (Exception e) {
+                allDirty.set(true);
+                logger.error("❌ Mission gap rebuild failed: {}", e.getMessage());
+            }
+            return;
+        }
+        for (String missionId : new ArrayList<>(dirtyMissions)) {
+            dirtyMissions.remove(missionId);
+            try {
+                refresh(missionId);
+            } catch (Exception e) {
+                dirtyMissions.add(missionId);
+                logger.error("❌ Mission gap refresh failed for {}: {}", missionId, e.getMessage());
+            }
+        }
+    }
+
+    // ============================================================
+    // Materialization
+    // ============================================================
+
+    // Recompute the gap table of one mission
+    private void refresh(String missionId) {
+        Date computedAt = new Date();
+        run(missionId, computedAt);
+        // Rows not rewritten by this run belong to resources without predictions any more
+        mongoTemplate.remove(Query.query(Criteria.where("missionId").is(missionId)
+                .and("computedAt").lt(computedAt)), MissionResourceGap.class);
+    }
+
+    // Recompute every mission's gap table and drop rows of missions without predictions
+    private void refreshAll() {
+        long start = System.currentTimeMillis();
+        Date computedAt = new Date();
+        run(null, computedAt);
+        mongoTemplate.remove(Query.query(Criteria.where("computedAt").lt(computedAt)), MissionResourceGap.class);
+        logger.info("📊 Mission gaps refreshed in {}ms", System.currentTimeMillis() - start);
+    }
+
+    // missionId null = all missions
+    private void run(String missionId, Date computedAt) {
+        List<Document> needs = new ArrayList<>();
+        SUPPLY_KEYS.forEach((field, supplyKey) -> needs.add(new Document("resource", field)
+                .append("supplyKey", supplyKey)
+                .append("quantity", new Document("$ifNull", List.of("$" + field, 0)))));
+
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("missionId",
+                        missionId != null ? missionId : new Document("$ne", null))),
+                new Document("$project", new Document("_id", 0)
+                        .append("missionId", 1)
+                        .append("needs", needs)),
+                new Document("$unwind", "$needs"),
+                new Document("$group", new Document("_id", new Document("missionId", "$missionId")
+                        .append("resource", "$needs.resource")
+                        .append("supplyKey", "$needs.supplyKey"))
+                        .append("demand", new Document("$sum", "$needs.quantity"))
+                        .append("campCount", new Document("$sum", 1))),
+                new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(ResourceReservation.class))
+                        .append("let", new Document("missionId", "$_id.missionId").append("key", "$_id.supplyKey"))
+                        .append("pipeline", List.of(
+                                new Document("$match", new Document("status", new Document("$in", RESERVED_STATUSES))
+                                        .append("$expr", new Document("$eq", List.of("$missionId", "$$missionId")))),
+                                new Document("$unwind", "$lines"),
+                                new Document("$match", new Document("$expr", new Document("$eq",
+                                        List.of(resourceKey("$lines.resource"), "$$key")))),
+                                new Document("$group", new Document("_id", null)
+                                        .append("quantity", new Document("$sum", "$lines.quantity")))))
+                        .append("as", "reserved")),
+                new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(ResourceAvailability.class))
+                        .append("let", new Document("key", "$_id.supplyKey"))
+                        .append("pipeline", List.of(
+                                new Document("$match", new Document("available", true)
+                                        .append("ownerStatus", new Document("$ne", AvailabilityStatus.NOT_AVAILABLE.name()))
+                                        .append("$expr", new Document("$eq", List.of("$resourceKey", "$$key")))),
+                                new Document("$group", new Document("_id", null)
+                                        .append("quantity", new Document("$sum", "$quantity")))))
+                        .append("as", "supply")),
+                new Document("$project", new Document("_id", new Document("$concat",
+                        List.of("$_id.missionId", ":", "$_id.resource")))
+                        .append("missionId", "$_id.missionId")
+                        .append("resource", "$_id.resource")
+                        .append("supplyKey", "$_id.supplyKey")
+                        .append("demand", 1)
+                        .append("campCount", 1)
+                        .append("reserved", new Document("$ifNull",
+                                List.of(new Document("$arrayElemAt", List.of("$reserved.quantity", 0)), 0)))
+                        .append("supply", new Document("$ifNull",
+                                List.of(new Document("$arrayElemAt", List.of("$supply.quantity", 0)), 0)))),
+                new Document("$set", new Document("gap", new Document("$max",
+                        List.of(0, new Document("$subtract", List.of("$demand",
+                                new Document("$add", List.of("$reserved", "$supply")))))))
+                        .append("coverage", new Document("$cond", List.of(
+                                new Document("$lte", List.of("$demand", 0)), 1.0,
+                                new Document("$min", List.of(1.0, new Document("$divide", List.of(
+                                        new Document("$add", List.of("$reserved", "$supply")), "$demand")))))))
+                        .append("computedAt", computedAt)
+                        .append("_class", MissionResourceGap.class.getName())),
+                // Keep whichever run is newer
+                new Document("$merge", new Document("into", GAP_COLLECTION)
+                        .append("on", "_id")
+                        .append("whenMatched", List.of(new Document("$replaceWith", new Document("$cond", List.of(
+                                new Document("$gte", List.of("$$new.computedAt", "$computedAt")),
+                                "$$new", "$$ROOT")))))
+                        .append("whenNotMatched", "insert")));
+
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(CampAiPrediction.class))
+                .aggregate(pipeline)
+                .toCollection();
+    }
+
+    // Server-side ResourceAvailability.keyOf: lower case, letters and digits only
+    private static Document resourceKey(String field) {
+        return new Document("$reduce", new Document("input", new Document("$regexFindAll",
+                new Document("input", new Document("$toLower", field)).append("regex", "[a-z0-9]")))
+                .append("initialValue", "")
+                .append("in", new Document("$concat", List.of("$$value", "$$this.match"))));
+    }
+
+    // ============================================================
+    // Reads
+    // ============================================================
+
+    public List<MissionResourceGap> getMissionGaps(String missionId) {
+        return gapRepository.findByMissionIdOrderByGapDesc(missionId);
+    }
+
+    public List<MissionResourceGap> getUnmetDemand(long minGap) {
+        return gapRepository.findByGapGreaterThanEqualOrderByGapDesc(Math.max(1, minGap));
+    }
+}
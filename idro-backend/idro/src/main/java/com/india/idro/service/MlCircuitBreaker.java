@@ -0,0 +1,196 @@
+package com.india.idro.service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Circuit breaker guarding calls to the ML server.
+ *
+ * States:
+ * - CLOSED: calls go through; consecutive failures or slow calls are counted
+ * - OPEN: calls are short-circuited so callers fall back to the rule engine
+ * immediately instead of waiting for connect/read timeouts
+ * - HALF_OPEN: a single background health probe decides whether to close
+ * again or stay open (request traffic is still short-circuited)
+ *
+ * A slow call (slower than the configured threshold) counts as a failure,
+ * so a degraded server trips the breaker just like a dead one.
+ *
+ * Exposed via /api/ml/status and /actuator/metrics:
+ * - idro.ml.circuit.state (0 = closed, 1 = half-open, 2 = open)
+ * - idro.ml.circuit.transitions {from, to}
+ * - idro.ml.circuit.short-circuited
+ */
+@Component
+public class MlCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(MlCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long slowCallMs;
+    private final long openDurationMs;
+    private final Counter shortCircuited;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMs;
+    private Instant lastTransitionAt = Instant.now();
+    private String lastFailure;
+
+    public MlCircuitBreaker(MeterRegistry meterRegistry,
+            @Value("${idro.ml.circuit-breaker.enabled:true}") boolean enabled,
+            @Value("${idro.ml.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${idro.ml.circuit-breaker.slow-call-ms:3000}") long slowCallMs,
+            @Value("${idro.ml.circuit-breaker.open-duration-ms:30000}") long openDurationMs) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.slowCallMs = slowCallMs;
+        this.openDurationMs = openDurationMs;
+        this.shortCircuited = Counter.builder("idro.ml.circuit.short-circuited")
+                .description("ML calls skipped because the circuit was not closed")
+                .register(meterRegistry);
+
+        Gauge.builder("idro.ml.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("ML circuit state (0 = closed, 1 = half-open, 2 = open)")
+                .register(meterRegistry);
+
+        logger.info("ML circuit breaker: enabled={}, failureThreshold={}, slowCall={}ms, openDuration={}ms",
+                enabled, this.failureThreshold, slowCallMs, openDurationMs);
+    }
+
+    /**
+     * Whether a request may be sent to the ML server right now.
+     * Counts a short-circuit when it may not.
+     */
+    public boolean allowRequest() {
+        if (!enabled) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+        }
+        shortCircuited.increment();
+        return false;
+    }
+
+    /**
+     * Record a completed call; calls slower than the slow-call threshold
+     * count as failures.
+     */
+    public void recordSuccess(long elapsedMs) {
+        recordSuccess(elapsedMs, slowCallMs);
+    }
+
+    /**
+     * Record a completed call against an explicit slow-call threshold
+     * (batch calls are allowed to take longer than single predictions).
+     */
+    public synchronized void recordSuccess(long elapsedMs, long slowThresholdMs) {
+        if (elapsedMs > slowThresholdMs) {
+            recordFailure("slow call: " + elapsedMs + "ms");
+            return;
+        }
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Record a failed call (connection error, timeout, 5xx).
+     */
+    public synchronized void recordFailure(String reason) {
+        lastFailure = reason;
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * Move OPEN to HALF_OPEN once the open duration has elapsed.
+     *
+     * @return true if the caller should now run a health probe
+     */
+    public synchronized boolean tryStartProbe() {
+        if (!enabled || state != State.OPEN
+                || System.currentTimeMillis() - openedAtMs < openDurationMs) {
+            return false;
+        }
+        transitionTo(State.HALF_OPEN);
+        return true;
+    }
+
+    /**
+     * Close the circuit if the half-open probe succeeded, otherwise reopen it.
+     */
+    public synchronized void recordProbeResult(boolean healthy) {
+        if (state != State.HALF_OPEN) {
+            return;
+        }
+        if (healthy) {
+            consecutiveFailures = 0;
+            transitionTo(State.CLOSED);
+        } else {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Snapshot of the breaker for the status endpoint.
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("state", state.name());
+        status.put("consecutiveFailures", consecutiveFailures);
+        status.put("failureThreshold", failureThreshold);
+        status.put("slowCallMs", slowCallMs);
+        status.put("openDurationMs", openDurationMs);
+        status.put("lastTransitionAt", lastTransitionAt.toString());
+        status.put("lastFailure", lastFailure);
+        status.put("shortCircuitedCalls", (long) shortCircuited.count());
+        return status;
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        state = next;
+        lastTransitionAt = Instant.now();
+        if (next == State.OPEN) {
+            openedAtMs = System.currentTimeMillis();
+        }
+
+        meterRegistry.counter("idro.ml.circuit.transitions",
+                "from", previous.name(), "to", next.name()).increment();
+
+        if (next == State.OPEN) {
+            logger.warn("🔴 ML circuit {} -> OPEN after {} consecutive failures (last: {})",
+                    previous, consecutiveFailures, lastFailure);
+        } else if (next == State.CLOSED) {
+            logger.info("🟢 ML circuit {} -> CLOSED, ML server is back", previous);
+        } else {
+            logger.info("🟡 ML circuit {} -> {}", previous, next);
+        }
+    }
+}
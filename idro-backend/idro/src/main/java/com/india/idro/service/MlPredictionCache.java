@@ -0,0 +1,150 @@
+package com.india.idro.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.india.idro.dto.AiPredictionRequestDTO;
+import com.india.idro.dto.AiPredictionResponseDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In-process memo of ML predictions.
+ * 
+ * The ML model is deterministic over the eight feature fields of
+ * AiPredictionRequestDTO, so identical feature vectors are answered from
+ * memory. Entries expire after a TTL, the cache is size-bounded (W-TinyLFU
+ * eviction), and everything is dropped when the ML server reports a new
+ * model version.
+ * 
+ * Only answers the model itself produced (prediction_source "ML") are
+ * stored. The ML server's own "Fallback" answers (model not loaded, or input
+ * it could not score) would otherwise keep being served for the whole TTL
+ * after the model recovers.
+ * 
+ * Hit/miss/eviction counts are exposed via /actuator/metrics as
+ * cache.* {cache=mlPredictions}.
+ */
+@Component
+public class MlPredictionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MlPredictionCache.class);
+
+    // prediction_source of answers computed by the model
+    private static final String MODEL_SOURCE = "ML";
+
+    private final boolean enabled;
+    private final Cache<FeatureKey, AiPredictionResponseDTO> cache;
+    private volatile String modelVersion;
+
+    public MlPredictionCache(MeterRegistry meterRegistry,
+            @Value("${idro.ml.cache.enabled:true}") boolean enabled,
+            @Value("${idro.ml.cache.max-size:50000}") long maxSize,
+            @Value("${idro.ml.cache.ttl-minutes:30}") long ttlMinutes) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "mlPredictions");
+        logger.info("ML prediction cache: enabled={}, maxSize={}, ttl={}min", enabled, maxSize, ttlMinutes);
+    }
+
+    /**
+     * Look up a cached prediction for the request's feature vector.
+     * 
+     * @return a copy tagged with the request's campId, or null on a miss
+     */
+    public AiPredictionResponseDTO get(AiPredictionRequestDTO request) {
+        if (!enabled || request == null) {
+            return null;
+        }
+        AiPredictionResponseDTO cached = cache.getIfPresent(FeatureKey.of(request));
+        return cached != null ? copyOf(cached, request.getCampId()) : null;
+    }
+
+    /**
+     * Remember a prediction for the request's feature vector; ignored unless
+     * the model produced it.
+     */
+    public void put(AiPredictionRequestDTO request, AiPredictionResponseDTO response) {
+        if (!enabled || request == null || response == null
+                || !MODEL_SOURCE.equalsIgnoreCase(response.getPredictionSource())) {
+            return;
+        }
+        cache.put(FeatureKey.of(request), copyOf(response, null));
+    }
+
+    /**
+     * Record the model version reported by the ML server, invalidating all
+     * cached predictions if it changed.
+     */
+    public void updateModelVersion(String version) {
+        if (version == null || version.equals(modelVersion)) {
+            return;
+        }
+        if (modelVersion != null) {
+            logger.info("ML model version changed {} -> {}, invalidating {} cached predictions",
+                    modelVersion, version, cache.estimatedSize());
+            cache.invalidateAll();
+        }
+        modelVersion = version;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public String getModelVersion() {
+        return modelVersion;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static AiPredictionResponseDTO copyOf(AiPredictionResponseDTO response, String campId) {
+        return new AiPredictionResponseDTO(
+                campId,
+                response.getRiskScore(),
+                response.getPredictionSource(),
+                response.getExplanations() != null ? List.copyOf(response.getExplanations()) : null,
+                response.getRequirements());
+    }
+
+    /**
+     * Normalized feature tuple: the exact inputs the model sees, minus campId.
+     */
+    record FeatureKey(String disasterType, String severity, String urgency,
+            int affectedCount, int injuredCount, int missingCount,
+            double latitude, double longitude) {
+
+        static FeatureKey of(AiPredictionRequestDTO request) {
+            return new FeatureKey(
+                    normalize(request.getDisasterType()),
+                    normalize(request.getSeverity()),
+                    normalize(request.getUrgency()),
+                    request.getAffectedCount(),
+                    request.getInjuredCount(),
+                    request.getMissingCount(),
+                    request.getLatitude() + 0.0, // folds -0.0 into 0.0
+                    request.getLongitude() + 0.0);
+        }
+
+        // Kept verbatim otherwise: the encoders are case- and whitespace-sensitive
+        private static String normalize(String value) {
+            return Objects.requireNonNullElse(value, "");
+        }
+    }
+}
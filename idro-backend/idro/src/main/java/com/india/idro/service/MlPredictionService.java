@@ -1,20 +1,41 @@
 package com.india.idro.service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import com.india.idro.dto.AiPredictionRequestDTO;
 import com.india.idro.dto.AiPredictionResponseDTO;
+import com.india.idro.dto.BatchPredictionRequestDTO;
+import com.india.idro.dto.BatchPredictionResponseDTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 /**
  * Service for calling the FastAPI ML server.
  * 
  * Responsibilities:
- * - Send POST requests to ML server /predict endpoint
+ * - Send POST requests to ML server /predict endpoint (blocking or reactive)
+ * - Send chunked POST requests to ML server /predict/batch endpoint
+ * - Serve repeated feature vectors from MlPredictionCache
+ * - Short-circuit calls while MlCircuitBreaker is open, probing in the background
  * - Handle network errors gracefully
  * - Log all ML communication
  * 
@@ -28,28 +49,64 @@ public class MlPredictionService {
 
     private static final Logger logger = LoggerFactory.getLogger(MlPredictionService.class);
 
-    // ML Server Configuration
-    private static final String ML_API_URL = "http://localhost:8000/predict";
-    private static final int CONNECTION_TIMEOUT_MS = 5000; // 5 seconds
-    private static final int READ_TIMEOUT_MS = 30000; // 30 seconds
+    private final String mlApiUrl;
+    private final String mlBatchApiUrl;
+    private final String mlHealthUrl;
+    private final String mlVersionUrl;
 
+    // Shared, pooled clients (see MlClientConfig)
     private final RestTemplate restTemplate;
+    private final WebClient mlWebClient;
+
+    // Memo of predictions per feature vector (see MlPredictionCache)
+    private final MlPredictionCache predictionCache;
+
+    // Skips ML calls entirely while the server is down or degraded
+    private final MlCircuitBreaker circuitBreaker;
+
+    // Max camps sent to /predict/batch per request
+    @Value("${idro.ml.batch-size:100}")
+    private int batchSize;
+
+    // Reactive path: in-flight request limit, timeouts and retry policy
+    @Value("${idro.ml.reactive.max-concurrency:32}")
+    private int maxConcurrency;
+
+    @Value("${idro.ml.reactive.timeout-ms:10000}")
+    private long reactiveTimeoutMs;
+
+    @Value("${idro.ml.http.read-timeout-ms:30000}")
+    private long batchTimeoutMs;
+
+    @Value("${idro.ml.reactive.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${idro.ml.reactive.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    // Batch chunks carry many camps, so they get their own slow-call threshold
+    @Value("${idro.ml.circuit-breaker.batch-slow-call-ms:15000}")
+    private long batchSlowCallMs;
 
     /**
-     * Constructor - Initializes RestTemplate with timeout configuration.
+     * Constructor - Uses the shared keep-alive ML clients from MlClientConfig.
      */
-    public MlPredictionService() {
-        // Configure HTTP client with timeouts to prevent hanging
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(CONNECTION_TIMEOUT_MS);
-        factory.setReadTimeout(READ_TIMEOUT_MS);
-
-        this.restTemplate = new RestTemplate(factory);
+    public MlPredictionService(@Qualifier("mlRestTemplate") RestTemplate restTemplate,
+            @Qualifier("mlWebClient") WebClient mlWebClient,
+            MlPredictionCache predictionCache,
+            MlCircuitBreaker circuitBreaker,
+            @Value("${idro.ml.base-url:http://localhost:8000}") String mlBaseUrl) {
+        this.restTemplate = restTemplate;
+        this.mlWebClient = mlWebClient;
+        this.predictionCache = predictionCache;
+        this.circuitBreaker = circuitBreaker;
+        this.mlApiUrl = mlBaseUrl + "/predict";
+        this.mlBatchApiUrl = mlBaseUrl + "/predict/batch";
+        this.mlHealthUrl = mlBaseUrl + "/";
+        this.mlVersionUrl = mlBaseUrl + "/version";
 
         logger.info("MlPredictionService initialized");
-        logger.info("ML API URL: {}", ML_API_URL);
-        logger.info("Connection timeout: {}ms, Read timeout: {}ms",
-                CONNECTION_TIMEOUT_MS, READ_TIMEOUT_MS);
+        logger.info("ML API URL: {}", mlApiUrl);
     }
 
     /**
@@ -64,20 +121,34 @@ public class MlPredictionService {
             return null;
         }
 
+        AiPredictionResponseDTO cached = predictionCache.get(request);
+        if (cached != null) {
+            logger.debug("ML prediction served from cache: {}", request);
+            return cached;
+        }
+
+        if (!circuitBreaker.allowRequest()) {
+            logger.debug("ML circuit open, skipping prediction for camp {}", request.getCampId());
+            return null;
+        }
+
+        long startedAt = System.currentTimeMillis();
         try {
             logger.debug("Sending prediction request to ML server: {}", request);
 
             // POST request to ML server
             AiPredictionResponseDTO response = restTemplate.postForObject(
-                    ML_API_URL,
+                    mlApiUrl,
                     request,
                     AiPredictionResponseDTO.class);
+            circuitBreaker.recordSuccess(System.currentTimeMillis() - startedAt);
 
             if (response != null) {
                 logger.info("✅ ML prediction successful - Source: {}, Risk: {}",
                         response.getPredictionSource(),
                         response.getRiskScore());
                 logger.debug("Full ML response: {}", response);
+                predictionCache.put(request, response);
             } else {
                 logger.warn("ML server returned null response");
             }
@@ -86,8 +157,9 @@ public class MlPredictionService {
 
         } catch (RestClientException e) {
             // Network errors, timeouts, HTTP errors
+            circuitBreaker.recordFailure(e.getMessage());
             logger.error("❌ Failed to call ML server at {}: {}",
-                    ML_API_URL, e.getMessage());
+                    mlApiUrl, e.getMessage());
             logger.debug("ML server error details", e);
             return null;
 
@@ -98,6 +170,240 @@ public class MlPredictionService {
         }
     }
 
+    /**
+     * Non-blocking variant of {@link #predict(AiPredictionRequestDTO)} on WebClient.
+     * 
+     * Applies a per-call timeout and retries transient failures (connection
+     * errors, timeouts, 5xx) with exponential backoff. Completes empty if the
+     * ML server is unavailable, so callers can fall back to the rule engine.
+     * 
+     * @param request The prediction request containing disaster details
+     * @return ML prediction response, or empty if ML server is unavailable
+     */
+    public Mono<AiPredictionResponseDTO> predictReactive(AiPredictionRequestDTO request) {
+        if (request == null) {
+            logger.error("Prediction request is null");
+            return Mono.empty();
+        }
+
+        AiPredictionResponseDTO cached = predictionCache.get(request);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        return Mono.defer(() -> {
+            if (!circuitBreaker.allowRequest()) {
+                return Mono.empty();
+            }
+            long startedAt = System.currentTimeMillis();
+            return mlWebClient.post()
+                    .uri(mlApiUrl)
+                    .bodyValue(request)
+                    .retrieve()
+                    .bodyToMono(AiPredictionResponseDTO.class)
+                    .timeout(Duration.ofMillis(reactiveTimeoutMs))
+                    .retryWhen(transientFailureRetry())
+                    .doOnSuccess(response -> circuitBreaker.recordSuccess(System.currentTimeMillis() - startedAt))
+                    .doOnError(this::recordCallFailure);
+        })
+                .doOnNext(response -> {
+                    logger.debug("ML prediction for camp {} - Source: {}, Risk: {}",
+                            request.getCampId(), response.getPredictionSource(), response.getRiskScore());
+                    predictionCache.put(request, response);
+                })
+                .onErrorResume(e -> {
+                    logger.error("❌ Failed to call ML server at {}: {}", mlApiUrl, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Call ML server once per chunk of requests instead of once per camp.
+     * 
+     * Blocks the calling thread only once for the whole mission; the chunks
+     * themselves are sent concurrently by {@link #predictBatchReactive(List)}.
+     * 
+     * @param requests Prediction requests, each carrying its campId
+     * @return ML responses keyed by camp ID (never null)
+     */
+    public Map<String, AiPredictionResponseDTO> predictBatch(List<AiPredictionRequestDTO> requests) {
+        Map<String, AiPredictionResponseDTO> results = predictBatchReactive(requests).block();
+        return results != null ? results : new LinkedHashMap<>();
+    }
+
+    /**
+     * Answer what we can from the prediction cache, then send the remaining
+     * requests to /predict/batch in chunks of {@code idro.ml.batch-size}, at
+     * most {@code idro.ml.reactive.max-concurrency} chunks in flight, and map
+     * results back by camp ID.
+     * 
+     * A failed chunk is logged and skipped, so its camps are simply absent
+     * from the result (callers fall back to the rule engine for them). If the
+     * ML server has no batch endpoint (404), the chunk is fanned out to
+     * /predict one camp at a time with the same concurrency limit.
+     * 
+     * @param requests Prediction requests, each carrying its campId
+     * @return ML responses keyed by camp ID (may be an empty map)
+     */
+    public Mono<Map<String, AiPredictionResponseDTO>> predictBatchReactive(List<AiPredictionRequestDTO> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return Mono.just(new LinkedHashMap<>());
+        }
+
+        Map<String, AiPredictionResponseDTO> cachedResults = new LinkedHashMap<>();
+        Map<String, AiPredictionRequestDTO> misses = new LinkedHashMap<>();
+        for (AiPredictionRequestDTO request : requests) {
+            if (request == null || request.getCampId() == null) {
+                logger.warn("Skipping batch prediction request without camp ID: {}", request);
+                continue;
+            }
+            AiPredictionResponseDTO cached = predictionCache.get(request);
+            if (cached != null) {
+                cachedResults.put(request.getCampId(), cached);
+            } else {
+                misses.put(request.getCampId(), request);
+            }
+        }
+
+        if (misses.isEmpty()) {
+            logger.info("✅ ML batch prediction served from cache - {} camps", cachedResults.size());
+            return Mono.just(cachedResults);
+        }
+
+        if (!circuitBreaker.allowRequest()) {
+            logger.warn("⚡ ML circuit open, {} camps fall back to the rule engine", misses.size());
+            return Mono.just(cachedResults);
+        }
+
+        List<AiPredictionRequestDTO> pending = new ArrayList<>(misses.values());
+        int chunkSize = Math.max(1, batchSize);
+        List<List<AiPredictionRequestDTO>> chunks = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            chunks.add(new ArrayList<>(pending.subList(from, Math.min(from + chunkSize, pending.size()))));
+        }
+
+        return Flux.fromIterable(chunks)
+                .flatMap(this::predictChunkReactive, Math.max(1, maxConcurrency))
+                .doOnNext(response -> predictionCache.put(misses.get(response.getCampId()), response))
+                .collectMap(AiPredictionResponseDTO::getCampId, response -> response,
+                        () -> new LinkedHashMap<String, AiPredictionResponseDTO>(cachedResults))
+                .doOnNext(results -> logger.info(
+                        "✅ ML batch prediction complete - {} cached, {}/{} fetched in {} chunk(s)",
+                        cachedResults.size(), results.size() - cachedResults.size(),
+                        pending.size(), chunks.size()));
+    }
+
+    private Flux<AiPredictionResponseDTO> predictChunkReactive(List<AiPredictionRequestDTO> chunk) {
+        // Chunks still queued behind max-concurrency are skipped once the circuit opens
+        return Mono.defer(() -> {
+            if (!circuitBreaker.allowRequest()) {
+                return Mono.<BatchPredictionResponseDTO>empty();
+            }
+            logger.debug("Sending batch of {} prediction requests to ML server", chunk.size());
+            long startedAt = System.currentTimeMillis();
+            return mlWebClient.post()
+                    .uri(mlBatchApiUrl)
+                    .bodyValue(new BatchPredictionRequestDTO(chunk))
+                    .retrieve()
+                    .bodyToMono(BatchPredictionResponseDTO.class)
+                    .timeout(Duration.ofMillis(batchTimeoutMs))
+                    .retryWhen(transientFailureRetry())
+                    .doOnSuccess(response -> circuitBreaker.recordSuccess(
+                            System.currentTimeMillis() - startedAt, batchSlowCallMs))
+                    .doOnError(this::recordCallFailure);
+        })
+                .flatMapIterable(response -> response.getResults() != null
+                        ? response.getResults()
+                        : List.<AiPredictionResponseDTO>of())
+                .filter(result -> result != null && result.getCampId() != null)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    logger.warn("ML server has no {} endpoint, predicting {} camps individually",
+                            mlBatchApiUrl, chunk.size());
+                    return predictEachReactive(chunk);
+                })
+                .onErrorResume(e -> {
+                    logger.error("❌ Failed to call ML server at {} for batch of {}: {}",
+                            mlBatchApiUrl, chunk.size(), e.getMessage());
+                    logger.debug("ML server error details", e);
+                    return Flux.empty();
+                });
+    }
+
+    private Flux<AiPredictionResponseDTO> predictEachReactive(List<AiPredictionRequestDTO> chunk) {
+        return Flux.fromIterable(chunk)
+                .flatMap(request -> predictReactive(request)
+                        .doOnNext(response -> response.setCampId(request.getCampId())),
+                        Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * Count a failed call against the circuit. A 404 on /predict/batch only
+     * means an older ML server, not an unhealthy one, so it is not counted.
+     */
+    private void recordCallFailure(Throwable e) {
+        if (!(e instanceof WebClientResponseException.NotFound)) {
+            circuitBreaker.recordFailure(e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    private Retry transientFailureRetry() {
+        return Retry.backoff(maxRetries, Duration.ofMillis(retryBackoffMs))
+                .filter(MlPredictionService::isTransientFailure)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private static boolean isTransientFailure(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError();
+        }
+        return e instanceof TimeoutException || e instanceof WebClientRequestException;
+    }
+
+    /**
+     * Poll the ML server's model version so cached predictions from an older
+     * model are dropped soon after a redeploy.
+     */
+    @Scheduled(fixedDelayString = "${idro.ml.cache.version-check-ms:60000}")
+    public void refreshModelVersion() {
+        try {
+            Map<?, ?> body = restTemplate.getForObject(mlVersionUrl, Map.class);
+            if (body != null && body.get("model_version") != null) {
+                predictionCache.updateModelVersion(body.get("model_version").toString());
+            }
+        } catch (Exception e) {
+            logger.debug("Could not read ML model version: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Background half-open probe: once the circuit has been open long enough,
+     * check the ML server health endpoint and close or reopen the circuit.
+     * Request traffic never acts as the probe, so no camp waits on a dead server.
+     */
+    @Scheduled(fixedDelayString = "${idro.ml.circuit-breaker.probe-interval-ms:5000}")
+    public void probeCircuit() {
+        if (circuitBreaker.tryStartProbe()) {
+            circuitBreaker.recordProbeResult(isAvailable());
+        }
+    }
+
+    /**
+     * Report the circuit breaker state for the status endpoint.
+     */
+    public Map<String, Object> getCircuitStatus() {
+        Map<String, Object> status = new LinkedHashMap<>(circuitBreaker.getStatus());
+        status.put("mlApiUrl", mlApiUrl);
+        return status;
+    }
+
+    /**
+     * Whether the circuit breaker currently lets requests through (no I/O,
+     * and unlike allowRequest() not counted as a short-circuit).
+     */
+    public boolean isCircuitClosed() {
+        return circuitBreaker.getState() == MlCircuitBreaker.State.CLOSED;
+    }
+
     /**
      * Check if ML server is reachable.
      * 
@@ -106,8 +412,8 @@ public class MlPredictionService {
     public boolean isAvailable() {
         try {
             // Simple health check - could be improved with a dedicated /health endpoint
-            logger.debug("Checking ML server availability at {}", ML_API_URL);
-            restTemplate.getForObject(ML_API_URL.replace("/predict", "/"), String.class);
+            logger.debug("Checking ML server availability at {}", mlApiUrl);
+            restTemplate.getForObject(mlHealthUrl, String.class);
             return true;
         } catch (Exception e) {
             logger.warn("ML server is not available: {}", e.getMessage());
@@ -121,6 +427,6 @@ public class MlPredictionService {
      * @return ML server URL
      */
     public String getMlApiUrl() {
-        return ML_API_URL;
+        return mlApiUrl;
     }
 }
@@ -0,0 +1,323 @@
+package com.india.idro.service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import com.india.idro.dto.ChangeEvent;
+import com.india.idro.model.Action;
+import com.india.idro.model.Alert;
+import com.india.idro.model.Camp;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Turns MongoDB change-stream events on camps, alerts and actions into
+ * WebSocket change events, so every node pushes every write (REST, seeder,
+ * other instances, manual fixes) without polling.
+ *
+ * Responsibilities:
+ * - Watch the database for insert/update/replace/delete on the three collections
+ * - Map each event to a ChangeEvent via ChangeEventPublisher
+ * - Persist the resume token per consumer so a restart resumes where it stopped
+ *
+ * Enabled with idro.realtime.source=change-stream (requires a replica set or
+ * sharded cluster). Write-path publishing is switched off in that mode.
+ *
+ * The consumer name keys the stored token, so it must survive restarts:
+ * it defaults to spring.application.name, and each replica needs its own
+ * stable name (e.g. a StatefulSet pod name), never a per-container id.
+ *
+ * The token is flushed at most every token-flush-ms, so a crash can replay
+ * that window once; client-side delta application is idempotent. An event
+ * that cannot be processed is logged, counted
+ * (idro.realtime.change-stream.skipped) and skipped.
+ */
+@Service
+@ConditionalOnProperty(name = "idro.realtime.source", havingValue = MongoChangeStreamListener.SOURCE)
+public class MongoChangeStreamListener implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoChangeStreamListener.class);
+
+    public static final String SOURCE = "change-stream";
+
+    private static final String TOKEN_COLLECTION = "change_stream_tokens";
+
+    // Server error code when the resume token has fallen off the oplog
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private static final Map<String, Class<?>> WATCHED = Map.of(
+            "camps", Camp.class,
+            "alerts", Alert.class,
+            "actions", Action.class);
+
+    private static final Map<String, String> ENTITY_NAMES = Map.of(
+            "camps", ChangeEventPublisher.CAMP,
+            "alerts", ChangeEventPublisher.ALERT,
+            "actions", ChangeEventPublisher.ACTION);
+
+    private final MongoTemplate mongoTemplate;
+    private final ChangeEventPublisher changePublisher;
+    private final String consumerName;
+    private final long tokenFlushMs;
+    private final long retryBackoffMs;
+    private final Counter skippedEvents;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    private BsonDocument resumeToken;
+    private boolean tokenDirty;
+    private long lastFlushAt;
+
+    public MongoChangeStreamListener(MongoTemplate mongoTemplate, ChangeEventPublisher changePublisher,
+            MeterRegistry meterRegistry,
+            @Value("${idro.realtime.change-stream.consumer-name:${spring.application.name:idro}}") String consumerName,
+            @Value("${idro.realtime.change-stream.token-flush-ms:1000}") long tokenFlushMs,
+            @Value("${idro.realtime.change-stream.retry-backoff-ms:5000}") long retryBackoffMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.changePublisher = changePublisher;
+        this.consumerName = consumerName;
+        this.tokenFlushMs = tokenFlushMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.skippedEvents = Counter.builder("idro.realtime.change-stream.skipped")
+                .description("Change stream events dropped because they could not be turned into change events")
+                .register(meterRegistry);
+    }
+
+    // ============================================================
+    // Lifecycle
+    // ============================================================
+
+    @Override
+    public void start() {
+        resumeToken = loadToken();
+        running = true;
+        worker = new Thread(this::watchLoop, "mongo-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+        logger.info("📡 Change stream listener started (consumer: {}, resuming: {})",
+                consumerName, resumeToken != null);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.info("📡 Change stream listener stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // ============================================================
+    // Watch loop
+    // ============================================================
+
+    private void watchLoop() {
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openStream().cursor()) {
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        try {
+                            handle(change);
+                        } catch (RuntimeException e) {
+                            // Skip it: resuming before an event that always fails would stall the stream
+                            skippedEvents.increment();
+                            logger.error("❌ Skipping unprocessable change event {} on {}: {}",
+                                    change.getOperationType(), change.getNamespace(), e.getMessage(), e);
+                        }
+                        resumeToken = change.getResumeToken();
+                        tokenDirty = true;
+                    }
+                    flushTokenIfDue(false);
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    // Events between the token and now are gone from the oplog
+                    logger.warn("⚠️ Change stream resume token expired, restarting from now; missed changes are not pushed");
+                    resumeToken = null;
+                    tokenDirty = true;
+                } else {
+                    logger.error("❌ Change stream failed: {}", e.getMessage());
+                    backOff();
+                }
+            } catch (MongoException e) {
+                if (running) {
+                    logger.error("❌ Change stream failed: {}", e.getMessage());
+                    backOff();
+                }
+            } catch (RuntimeException e) {
+                logger.error("❌ Unexpected change stream error: {}", e.getMessage(), e);
+                backOff();
+            } finally {
+                flushTokenIfDue(true);
+            }
+        }
+    }
+
+    private ChangeStreamIterable<Document> openStream() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.in("ns.coll", WATCHED.keySet()))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        return resumeToken != null ? stream.resumeAfter(resumeToken) : stream;
+    }
+
+    private void handle(ChangeStreamDocument<Document> change) {
+        if (change.getNamespace() == null) {
+            return;
+        }
+        String collection = change.getNamespace().getCollectionName();
+        String entity = ENTITY_NAMES.get(collection);
+        String id = idOf(change.getDocumentKey());
+        if (entity == null || id == null) {
+            return;
+        }
+
+        // Full document (looked up for updates) in REST JSON shape; null for deletes
+        Object document = read(collection, change.getFullDocument());
+        Map<String, Object> current = changePublisher.snapshot(document);
+
+        switch (change.getOperationType()) {
+            case INSERT -> changePublisher.publishChange(entity, ChangeEvent.Type.CREATED, id, null,
+                    document, current);
+            case REPLACE -> changePublisher.publishChange(entity, ChangeEvent.Type.UPDATED, id,
+                    current, null, current);
+            case UPDATE -> {
+                Map<String, Object> changes = changedFields(change.getUpdateDescription(), current);
+                if (!changes.isEmpty()) {
+                    changePublisher.publishChange(entity, ChangeEvent.Type.UPDATED, id, changes, null, current);
+                }
+            }
+            // No pre-image: the publisher routes deletions by the last route it saw
+            case DELETE -> changePublisher.publishChange(entity, ChangeEvent.Type.DELETED, id, null, null, null);
+            default -> logger.debug("Ignoring {} change on {}", change.getOperationType(), collection);
+        }
+    }
+
+    /**
+     * Top-level fields touched by an update, valued from the looked-up full
+     * document in the same JSON shape the REST API returns. Nested paths
+     * (e.g. "stock.food") are reported as their whole top-level field.
+     */
+    private static Map<String, Object> changedFields(UpdateDescription description, Map<String, Object> current) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+
+        // Document deleted before the lookup ran: a DELETE event follows
+        if (description == null || current == null) {
+            return changes;
+        }
+
+        if (description.getUpdatedFields() != null) {
+            description.getUpdatedFields().keySet().forEach(path -> putTopLevel(changes, current, path));
+        }
+        if (description.getRemovedFields() != null) {
+            description.getRemovedFields().forEach(path -> putTopLevel(changes, current, path));
+        }
+        return changes;
+    }
+
+    private static void putTopLevel(Map<String, Object> changes, Map<String, Object> current, String path) {
+        String field = path.contains(".") ? path.substring(0, path.indexOf('.')) : path;
+        if ("_id".equals(field) || "_class".equals(field)) {
+            return;
+        }
+        changes.put(field, current.get(field));
+    }
+
+    private Object read(String collection, Document document) {
+        return document != null ? mongoTemplate.getConverter().read(WATCHED.get(collection), document) : null;
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        if (documentKey == null || !documentKey.containsKey("_id")) {
+            return null;
+        }
+        BsonValue id = documentKey.get("_id");
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private void backOff() {
+        try {
+            Thread.sleep(retryBackoffMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ============================================================
+    // Resume token persistence
+    // ============================================================
+
+    private BsonDocument loadToken() {
+        try {
+            Document stored = tokens().find(Filters.eq("_id", consumerName)).first();
+            if (stored != null && stored.get("token") instanceof Document token) {
+                return token.toBsonDocument();
+            }
+        } catch (MongoException e) {
+            logger.warn("Could not load change stream resume token: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private void flushTokenIfDue(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!tokenDirty || (!force && now - lastFlushAt < tokenFlushMs)) {
+            return;
+        }
+        try {
+            Document stored = new Document("_id", consumerName)
+                    .append("token", resumeToken != null ? Document.parse(resumeToken.toJson()) : null)
+                    .append("updatedAt", LocalDateTime.now());
+            tokens().replaceOne(Filters.eq("_id", consumerName), stored, new ReplaceOptions().upsert(true));
+            tokenDirty = false;
+            lastFlushAt = now;
+        } catch (MongoException e) {
+            logger.warn("Could not persist change stream resume token: {}", e.getMessage());
+        }
+    }
+
+    private MongoCollection<Document> tokens() {
+        return mongoTemplate.getCollection(TOKEN_COLLECTION);
+    }
+}
@@ -8,14 +8,21 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.india.idro.exception.ConflictException;
 import com.india.idro.model.NGO;
 import com.india.idro.model.ResourceItem;
 import com.india.idro.model.enums.AvailabilityStatus;
 import com.india.idro.model.enums.CoverageRadius;
 import com.india.idro.model.enums.ResponseTime;
 import com.india.idro.repository.NGORepository;
+import com.india.idro.service.matching.ResponderMatchingService;
 
 import jakarta.annotation.PostConstruct;
 
@@ -25,6 +32,15 @@ public class NGOService {
     @Autowired
     private NGORepository ngoRepository;
 
+    @Autowired
+    private ResourceAvailabilityService availabilityService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ResponderMatchingService matchingService;
+
     @PostConstruct
     public void initializeDemoAccounts() {
         // Check if demo accounts already exist
@@ -42,6 +58,7 @@ public class NGOService {
                         "123",
                         "Red Cross India",
                         "Mumbai",
+                        19.076, 72.8777,
                         "Maharashtra",
                         "+91-22-2307-7000",
                         "REG-RC-2001",
@@ -52,6 +69,7 @@ public class NGOService {
                         "123",
                         "Care India",
                         "Delhi",
+                        28.6139, 77.209,
                         "NCR",
                         "+91-11-4737-4500",
                         "REG-CI-2003",
@@ -62,6 +80,7 @@ public class NGOService {
                         "123",
                         "Oxfam India",
                         "Bangalore",
+                        12.9716, 77.5946,
                         "Karnataka",
                         "+91-80-4090-9200",
                         "REG-OI-2008",
@@ -72,6 +91,7 @@ public class NGOService {
                         "123",
                         "Save the Children",
                         "Chennai",
+                        13.0827, 80.2707,
                         "Tamil Nadu",
                         "+91-44-4213-0500",
                         "REG-SC-2005",
@@ -82,6 +102,7 @@ public class NGOService {
                         "123",
                         "Goonj",
                         "Kolkata",
+                        22.5726, 88.3639,
                         "West Bengal",
                         "+91-33-2357-8900",
                         "REG-GJ-2004",
@@ -93,7 +114,7 @@ public class NGOService {
     }
 
     private NGO createDemoNGO(String ngoId, String password, String ngoName,
-            String city, String state, String contactNumber,
+            String city, double latitude, double longitude, String state, String contactNumber,
             String registrationId, String operatingRegion,
             List<String> supportedDisasterTypes) {
         NGO ngo = new NGO();
@@ -101,6 +122,8 @@ public class NGOService {
         ngo.setPassword(password);
         ngo.setNgoName(ngoName);
         ngo.setCity(city);
+        ngo.setLatitude(latitude);
+        ngo.setLongitude(longitude);
         ngo.setState(state);
         ngo.setContactNumber(contactNumber);
         ngo.setRegistrationId(registrationId);
@@ -166,52 +189,78 @@ public class NGOService {
             Map<String, ResourceItem> shelterEssentials,
             Map<String, ResourceItem> humanResources,
             String additionalNotes) {
-        Optional<NGO> ngoOpt = ngoRepository.findByNgoId(ngoId);
-
-        if (ngoOpt.isEmpty()) {
-            return null;
-        }
-
-        NGO ngo = ngoOpt.get();
-
-        // Update resources
+        // Only the supplied sections are written; availability fields are left alone
+        Update update = new Update().set("lastUpdated", LocalDateTime.now());
         if (reliefSupplies != null)
-            ngo.setReliefSupplies(reliefSupplies);
+            update.set("reliefSupplies", reliefSupplies);
         if (medicalSupport != null)
-            ngo.setMedicalSupport(medicalSupport);
+            update.set("medicalSupport", medicalSupport);
         if (shelterEssentials != null)
-            ngo.setShelterEssentials(shelterEssentials);
+            update.set("shelterEssentials", shelterEssentials);
         if (humanResources != null)
-            ngo.setHumanResources(humanResources);
+            update.set("humanResources", humanResources);
         if (additionalNotes != null)
-            ngo.setAdditionalNotes(additionalNotes);
-
-        ngo.setLastUpdated(LocalDateTime.now());
+            update.set("additionalNotes", additionalNotes);
+
+        // Quantities are absolute; while a hold is open, a later release would add its stock back on top of them
+        boolean stock = reliefSupplies != null || medicalSupport != null || shelterEssentials != null
+                || humanResources != null;
+        Criteria criteria = Criteria.where("ngoId").is(ngoId);
+        if (stock) {
+            criteria.andOperator(ResourceReservationService.noOpenHolds());
+        }
 
-        return ngoRepository.save(ngo);
+        NGO saved = patch(Query.query(criteria), update);
+        if (saved == null && stock && ngoRepository.findByNgoId(ngoId).isPresent()) {
+            throw new ConflictException("NGO " + ngoId
+                    + " has open reservations; confirm or release them before editing stock");
+        }
+        if (saved != null) {
+            availabilityService.sync(saved);
+        }
+        return saved;
     }
 
     public NGO updateAvailability(String ngoId, AvailabilityStatus availabilityStatus,
             ResponseTime responseTime, CoverageRadius coverageRadius) {
-        Optional<NGO> ngoOpt = ngoRepository.findByNgoId(ngoId);
-
-        if (ngoOpt.isEmpty()) {
-            return null;
-        }
-
-        NGO ngo = ngoOpt.get();
-
-        // Update availability
+        Update update = new Update().set("lastUpdated", LocalDateTime.now());
         if (availabilityStatus != null)
-            ngo.setAvailabilityStatus(availabilityStatus);
+            update.set("availabilityStatus", availabilityStatus);
         if (responseTime != null)
-            ngo.setResponseTime(responseTime);
+            update.set("responseTime", responseTime);
         if (coverageRadius != null)
-            ngo.setCoverageRadius(coverageRadius);
+            update.set("coverageRadius", coverageRadius);
 
-        ngo.setLastUpdated(LocalDateTime.now());
+        NGO saved = patch(ngoId, update);
 
-        return ngoRepository.save(ngo);
+        // Owner status is denormalized into the availability rows
+        if (saved != null && availabilityStatus != null) {
+            availabilityService.updateOwnerStatus(ResourceAvailabilityService.NGO_OWNER, ngoId, availabilityStatus);
+        }
+        return saved;
+    }
+
+    // Base location for nearest-responder matching
+    public NGO updateLocation(String ngoId, double latitude, double longitude) {
+        return patch(ngoId, new Update()
+                .set("latitude", latitude)
+                .set("longitude", longitude)
+                .set("lastUpdated", LocalDateTime.now()));
+    }
+
+    // One targeted $set instead of load + full save; null if the NGO does not exist
+    private NGO patch(String ngoId, Update update) {
+        return patch(Query.query(Criteria.where("ngoId").is(ngoId)), update);
+    }
+
+    private NGO patch(Query query, Update update) {
+        NGO updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), NGO.class);
+        if (updated != null) {
+            // findAndModify raises no save events; keep the responder index current
+            matchingService.onSaved(updated);
+        }
+        return updated;
     }
 
     public List<NGO> getAllNGOs() {
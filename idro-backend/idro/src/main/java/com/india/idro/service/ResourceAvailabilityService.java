@@ -0,0 +1,293 @@
+package com.india.idro.service;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.india.idro.dto.ResourceAvailabilitySummary;
+import com.india.idro.exception.BadRequestException;
+import com.india.idro.model.GovernmentAgency;
+import com.india.idro.model.NGO;
+import com.india.idro.model.ResourceAvailability;
+import com.india.idro.model.ResourceItem;
+import com.india.idro.model.enums.AvailabilityStatus;
+import com.india.idro.repository.GovernmentAgencyRepository;
+import com.india.idro.repository.NGORepository;
+import com.india.idro.repository.ResourceAvailabilityRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maintains resource_availability, the flattened (owner, resource) view of
+ * NGO and agency inventories, and answers cross-organization stock queries.
+ *
+ * Responsibilities:
+ * - Rewrite an owner's rows whenever its resources change; patch their
+ * owner status when only availability changes
+ * - Rebuild everything on startup if the collection is empty
+ * - Indexed "who has N of X" lookups and per-resource totals
+ *
+ * Rows carry the owner's lastUpdated (ownerUpdatedAt) and are only replaced
+ * or removed by a sync of the same or a newer owner state, so concurrent
+ * syncs applied out of order never leave older inventory behind.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResourceAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceAvailabilityService.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    public static final String NGO_OWNER = "NGO";
+    public static final String AGENCY_OWNER = "AGENCY";
+
+    private final ResourceAvailabilityRepository availabilityRepository;
+    private final NGORepository ngoRepository;
+    private final GovernmentAgencyRepository agencyRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MissionGapService gapService;
+
+    // ============================================================
+    // Sync
+    // ============================================================
+
+    public void sync(NGO ngo) {
+        List<ResourceAvailability> rows = new ArrayList<>();
+        addRows(rows, ngo, "reliefSupplies", ngo.getReliefSupplies());
+        addRows(rows, ngo, "medicalSupport", ngo.getMedicalSupport());
+        addRows(rows, ngo, "shelterEssentials", ngo.getShelterEssentials());
+        addRows(rows, ngo, "humanResources", ngo.getHumanResources());
+        replaceOwnerRows(NGO_OWNER, ngo.getNgoId(), ngo.getLastUpdated(), rows);
+    }
+
+    public void sync(GovernmentAgency agency) {
+        List<ResourceAvailability> rows = new ArrayList<>();
+        if (agency.getResources() != null) {
+            agency.getResources().forEach((category, items) -> {
+                if (items != null) {
+                    items.forEach(item -> {
+                        if (item != null) {
+                            rows.add(row(AGENCY_OWNER, agency.getAgencyId(), agency.getAgencyName(), agency, category,
+                                    item.getName(), item));
+                        }
+                    });
+                }
+            });
+        }
+        replaceOwnerRows(AGENCY_OWNER, agency.getAgencyId(), agency.getLastUpdated(), rows);
+    }
+
+    /**
+     * Push an owner's new availability status into its rows without
+     * rewriting them (resources are unchanged).
+     */
+    public void updateOwnerStatus(String ownerType, String ownerId, AvailabilityStatus status) {
+        if (ownerId == null || status == null) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("ownerType").is(ownerType).and("ownerId").is(ownerId)),
+                new Update().set("ownerStatus", status).set("updatedAt", LocalDateTime.now()),
+                ResourceAvailability.class);
+
+        // Supply excludes NOT_AVAILABLE owners
+        gapService.markAllDirty();
+    }
+
+    /**
+     * Rebuild the whole collection from the owner documents.
+     */
+    public void rebuildAll() {
+        ngoRepository.findAll().forEach(this::sync);
+        agencyRepository.findAll().forEach(this::sync);
+        logger.info("📦 Resource availability rebuilt: {} rows", availabilityRepository.count());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (availabilityRepository.count() == 0) {
+                rebuildAll();
+            }
+        } catch (Exception e) {
+            logger.error("❌ Resource availability rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    private void addRows(List<ResourceAvailability> rows, NGO ngo, String category, Map<String, ResourceItem> items) {
+        if (items != null) {
+            items.forEach((name, item) -> {
+                if (item != null) {
+                    rows.add(row(NGO_OWNER, ngo.getNgoId(), ngo.getNgoName(), ngo, category, name, item));
+                }
+            });
+        }
+    }
+
+    private static ResourceAvailability row(String ownerType, String ownerId, String ownerName, Object owner,
+            String category, String resourceName, ResourceItem item) {
+        String name = resourceName != null ? resourceName : item.getName();
+        String key = ResourceAvailability.keyOf(name);
+        return ResourceAvailability.builder()
+                .id(ownerType + ":" + ownerId + ":" + category + ":" + key)
+                .ownerType(ownerType)
+                .ownerId(ownerId)
+                .ownerName(ownerName)
+                .ownerStatus(owner instanceof NGO ngo ? ngo.getAvailabilityStatus()
+                        : ((GovernmentAgency) owner).getAvailabilityStatus())
+                .category(category)
+                .resourceName(name)
+                .resourceKey(key)
+                .available(item.isAvailable())
+                .quantity(item.getQuantity())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    // Upsert the owner's current rows, then drop rows for resources it no longer lists; both guarded by the stamp
+    private void replaceOwnerRows(String ownerType, String ownerId, LocalDateTime stamp,
+            List<ResourceAvailability> rows) {
+        if (ownerId == null) {
+            return;
+        }
+        LocalDateTime ownerUpdatedAt = stamp != null ? stamp : LocalDateTime.now();
+        if (!rows.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ResourceAvailability.class);
+            for (ResourceAvailability row : rows) {
+                row.setOwnerUpdatedAt(ownerUpdatedAt);
+                bulk.replaceOne(Query.query(new Criteria().andOperator(
+                        Criteria.where("_id").is(row.getId()), olderThan(ownerUpdatedAt, true))), row,
+                        FindAndReplaceOptions.options().upsert());
+            }
+            try {
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                // A newer sync already wrote the row: the filter missed and the upsert hit its _id
+                if (!e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY)) {
+                    throw e;
+                }
+            }
+        }
+        mongoTemplate.remove(Query.query(new Criteria().andOperator(ownerRows(ownerType, ownerId),
+                Criteria.where("_id").nin(rows.stream().map(ResourceAvailability::getId).toList()),
+                olderThan(ownerUpdatedAt, false))),
+                ResourceAvailability.class);
+
+        // The owner moved on while this sync ran: rows it wrote for a resource the newer state dropped must go too
+        LocalDateTime current = currentStamp(ownerType, ownerId);
+        if (current != null && current.isAfter(ownerUpdatedAt)) {
+            mongoTemplate.remove(Query.query(new Criteria().andOperator(ownerRows(ownerType, ownerId),
+                    olderThan(current, false))), ResourceAvailability.class);
+        }
+
+        // Supply is shared by all missions
+        gapService.markAllDirty();
+    }
+
+    private static Criteria ownerRows(String ownerType, String ownerId) {
+        return Criteria.where("ownerType").is(ownerType).and("ownerId").is(ownerId);
+    }
+
+    // Rows written from an owner state before the stamp (or at it, if inclusive), or before stamps existed
+    private static Criteria olderThan(LocalDateTime stamp, boolean inclusive) {
+        Criteria stamped = Criteria.where("ownerUpdatedAt");
+        return new Criteria().orOperator(inclusive ? stamped.lte(stamp) : stamped.lt(stamp),
+                Criteria.where("ownerUpdatedAt").exists(false));
+    }
+
+    // Stored lastUpdated, read raw: the entity constructors default it to now
+    private LocalDateTime currentStamp(String ownerType, String ownerId) {
+        boolean ngo = NGO_OWNER.equals(ownerType);
+        String collection = mongoTemplate.getCollectionName(ngo ? NGO.class : GovernmentAgency.class);
+        Document owner = mongoTemplate.getCollection(collection)
+                .find(new Document(ngo ? "ngoId" : "agencyId", ownerId))
+                .projection(new Document("lastUpdated", 1))
+                .first();
+        Date lastUpdated = owner != null ? owner.getDate("lastUpdated") : null;
+        return lastUpdated != null ? LocalDateTime.ofInstant(lastUpdated.toInstant(), ZoneId.systemDefault()) : null;
+    }
+
+    // ============================================================
+    // Queries
+    // ============================================================
+
+    /**
+     * Owners with at least minQuantity of a resource available, largest first.
+     * Owners marked NOT_AVAILABLE are left out, whatever their stock.
+     *
+     * @param ownerType NGO, AGENCY or null for both
+     */
+    public List<ResourceAvailability> findAvailable(String resource, int minQuantity, String ownerType) {
+        String key = ResourceAvailability.keyOf(resource);
+        if (key.isEmpty()) {
+            throw new BadRequestException("resource is required");
+        }
+        int min = Math.max(1, minQuantity);
+        if (ownerType == null || ownerType.isBlank()) {
+            return availabilityRepository
+                    .findByResourceKeyAndAvailableTrueAndQuantityGreaterThanEqualAndOwnerStatusNotOrderByQuantityDesc(
+                            key, min, AvailabilityStatus.NOT_AVAILABLE);
+        }
+        String owner = ownerType.trim().toUpperCase();
+        if (!NGO_OWNER.equals(owner) && !AGENCY_OWNER.equals(owner)) {
+            throw new BadRequestException("ownerType must be NGO or AGENCY");
+        }
+        return availabilityRepository
+                .findByResourceKeyAndOwnerTypeAndAvailableTrueAndQuantityGreaterThanEqualAndOwnerStatusNotOrderByQuantityDesc(
+                        key, owner, min, AvailabilityStatus.NOT_AVAILABLE);
+    }
+
+    public List<ResourceAvailability> findByOwner(String ownerType, String ownerId) {
+        return availabilityRepository.findByOwnerTypeAndOwnerId(ownerType.trim().toUpperCase(), ownerId);
+    }
+
+    /**
+     * Available quantity per resource across all owners, largest first.
+     */
+    public List<ResourceAvailabilitySummary> summarize() {
+        Aggregation aggregation = newAggregation(
+                match(Criteria.where("available").is(true).and("quantity").gt(0)),
+                group("resourceKey")
+                        .sum("quantity").as("totalQuantity")
+                        .addToSet("ownerId").as("owners")
+                        .sum(ConditionalOperators.when(Criteria.where("ownerType").is(NGO_OWNER))
+                                .thenValueOf("quantity").otherwise(0)).as("ngoQuantity")
+                        .sum(ConditionalOperators.when(Criteria.where("ownerType").is(AGENCY_OWNER))
+                                .thenValueOf("quantity").otherwise(0)).as("agencyQuantity"),
+                project("totalQuantity", "ngoQuantity", "agencyQuantity")
+                        .and("resourceKey").previousOperation()
+                        .and(ArrayOperators.Size.lengthOfArray("owners")).as("ownerCount"),
+                sort(Sort.Direction.DESC, "totalQuantity"));
+
+        return mongoTemplate.aggregate(aggregation, ResourceAvailability.class, ResourceAvailabilitySummary.class)
+                .getMappedResults();
+    }
+}
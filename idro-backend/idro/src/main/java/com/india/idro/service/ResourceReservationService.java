@@ -0,0 +1,509 @@
+package com.india.idro.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.india.idro.dto.ReservationRequest;
+import com.india.idro.exception.BadRequestException;
+import com.india.idro.exception.ConflictException;
+import com.india.idro.exception.ResourceNotFoundException;
+import com.india.idro.model.GovernmentAgency;
+import com.india.idro.model.NGO;
+import com.india.idro.model.ReservationLine;
+import com.india.idro.model.ResourceItem;
+import com.india.idro.model.ResourceLedgerEntry;
+import com.india.idro.model.ResourceReservation;
+import com.india.idro.model.enums.ReservationStatus;
+import com.india.idro.repository.ResourceLedgerRepository;
+import com.india.idro.repository.ResourceReservationRepository;
+import com.india.idro.service.matching.ResponderMatchingService;
+
+/**
+ * Holds NGO and agency stock for missions without oversubscribing it.
+ *
+ * Responsibilities:
+ * - Take every line of a reservation in one guarded findAndModify on the
+ * owner document ($inc -n where quantity >= n), so concurrent dispatchers
+ * can never drive a quantity below zero and a batch is all-or-nothing
+ * - Confirm (stock consumed) or release (stock returned) a hold
+ * - Return holds that pass their deadline, on a schedule
+ * - Append every stock movement to resource_ledger
+ *
+ * Each owner document lists the reservations holding its stock
+ * (heldReservations); take and return are guarded on that list, so a step
+ * replayed after a crash or by the sweeper never applies twice.
+ *
+ * Owner inventory edits (updateResources) set absolute quantities, so they
+ * are refused with 409 while any hold is open (see noOpenHolds); otherwise
+ * releasing that hold would add its stock back on top of the new count.
+ */
+@Service
+public class ResourceReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceReservationService.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final Set<String> NGO_CATEGORIES = Set.of(
+            "reliefSupplies", "medicalSupport", "shelterEssentials", "humanResources");
+
+    private static final List<ReservationStatus> OPEN = List.of(ReservationStatus.PENDING, ReservationStatus.HELD);
+
+    private static final List<ReservationStatus> RETURNING = List.of(ReservationStatus.RELEASED,
+            ReservationStatus.EXPIRED);
+
+    private final ResourceReservationRepository reservationRepository;
+    private final ResourceLedgerRepository ledgerRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ResourceAvailabilityService availabilityService;
+    private final ResponderMatchingService matchingService;
+    private final long holdMs;
+    private final long maxHoldMs;
+    private final int maxLines;
+    private final int sweepBatchSize;
+
+    public ResourceReservationService(ResourceReservationRepository reservationRepository,
+            ResourceLedgerRepository ledgerRepository, MongoTemplate mongoTemplate,
+            ResourceAvailabilityService availabilityService, ResponderMatchingService matchingService,
+            @Value("${idro.reservations.hold-ms:900000}") long holdMs,
+            @Value("${idro.reservations.max-hold-ms:86400000}") long maxHoldMs,
+            @Value("${idro.reservations.max-lines:50}") int maxLines,
+            @Value("${idro.reservations.sweep-batch-size:200}") int sweepBatchSize) {
+        this.reservationRepository = reservationRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.availabilityService = availabilityService;
+        this.matchingService = matchingService;
+        this.holdMs = holdMs;
+        this.maxHoldMs = Math.max(holdMs, maxHoldMs);
+        this.maxLines = maxLines;
+        this.sweepBatchSize = Math.max(1, sweepBatchSize);
+    }
+
+    // ============================================================
+    // Reserve / confirm / release
+    // ============================================================
+
+    /**
+     * Hold all requested lines of one owner's stock.
+     *
+     * @throws ConflictException if any line is short; nothing is taken then
+     */
+    public ResourceReservation reserve(ReservationRequest request) {
+        if (request == null) {
+            throw new BadRequestException("Reservation request is required");
+        }
+        String ownerType = ownerType(request.getOwnerType());
+        if (request.getOwnerId() == null || request.getOwnerId().isBlank()) {
+            throw new BadRequestException("ownerId is required");
+        }
+        List<ReservationLine> lines = mergeLines(ownerType, request.getLines());
+        long hold = request.getHoldMs() != null ? Math.max(1000, Math.min(request.getHoldMs(), maxHoldMs)) : holdMs;
+
+        // Recorded first, so a crash after the stock is taken still leaves something for the sweeper to expire
+        LocalDateTime now = LocalDateTime.now();
+        ResourceReservation reservation = reservationRepository.insert(ResourceReservation.builder()
+                .id(new ObjectId().toHexString())
+                .ownerType(ownerType)
+                .ownerId(request.getOwnerId())
+                .missionId(request.getMissionId())
+                .requestedBy(request.getRequestedBy())
+                .lines(lines)
+                .status(ReservationStatus.PENDING)
+                .createdAt(now)
+                .expiresAt(now.plus(Duration.ofMillis(hold)))
+                .updatedAt(now)
+                .build());
+
+        Object owner = mongoTemplate.findAndModify(
+                takeQuery(reservation),
+                stockUpdate(reservation, -1).push("heldReservations", reservation.getId()),
+                FindAndModifyOptions.options().returnNew(true),
+                ownerClass(ownerType));
+
+        if (owner == null) {
+            transition(reservation.getId(), List.of(ReservationStatus.PENDING), ReservationStatus.REJECTED);
+            throw rejection(reservation);
+        }
+
+        if (transition(reservation.getId(), List.of(ReservationStatus.PENDING), ReservationStatus.HELD) == null) {
+            // Released or expired while the stock was being taken; give it straight back
+            ResourceReservation current = get(reservation.getId());
+            settle(current, false);
+            throw new ConflictException("Reservation " + reservation.getId() + " was " + current.getStatus()
+                    + " before it was held");
+        }
+        appendLedger(reservation, ResourceLedgerEntry.Type.RESERVE, -1);
+        refreshOwner(owner);
+
+        reservation.setStatus(ReservationStatus.HELD);
+        logger.info("📦 Reserved {} line(s) from {} {} (reservation {})",
+                lines.size(), ownerType, reservation.getOwnerId(), reservation.getId());
+        return reservation;
+    }
+
+    /**
+     * The mission has taken delivery: the held stock stays consumed.
+     */
+    public ResourceReservation confirm(String id) {
+        ResourceReservation previous = transition(id, List.of(ReservationStatus.HELD), ReservationStatus.CONFIRMED);
+        if (previous == null) {
+            throw stateConflict(id, "confirmed");
+        }
+
+        // Stock is unchanged; just stop tracking the hold on the owner
+        mongoTemplate.updateFirst(heldQuery(previous), new Update().pull("heldReservations", id),
+                ownerClass(previous.getOwnerType()));
+        appendLedger(previous, ResourceLedgerEntry.Type.CONFIRM, 0);
+
+        previous.setStatus(ReservationStatus.CONFIRMED);
+        return previous;
+    }
+
+    /**
+     * Give the held stock back to the owner.
+     */
+    public ResourceReservation release(String id) {
+        ResourceReservation previous = transition(id, OPEN, ReservationStatus.RELEASED);
+        if (previous == null) {
+            throw stateConflict(id, "released");
+        }
+        boolean wasHeld = previous.getStatus() == ReservationStatus.HELD;
+        previous.setStatus(ReservationStatus.RELEASED);
+        settle(previous, wasHeld);
+        return previous;
+    }
+
+    // ============================================================
+    // Timeout sweeper
+    // ============================================================
+
+    @Scheduled(fixedDelayString = "${idro.reservations.sweep-interval-ms:30000}",
+            initialDelayString = "${idro.reservations.sweep-interval-ms:30000}")
+    public void expireHolds() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int expired = 0;
+            for (ResourceReservation due : reservationRepository.findByStatusInAndExpiresAtBefore(OPEN, now,
+                    PageRequest.of(0, sweepBatchSize))) {
+                ResourceReservation previous = transition(due.getId(), OPEN, ReservationStatus.EXPIRED);
+                if (previous != null) {
+                    boolean wasHeld = previous.getStatus() == ReservationStatus.HELD;
+                    previous.setStatus(ReservationStatus.EXPIRED);
+                    settle(previous, wasHeld);
+                    expired++;
+                }
+            }
+
+            // Returns interrupted between the status change and the stock update
+            for (ResourceReservation stuck : reservationRepository.findByStatusInAndSettledFalseAndUpdatedAtBefore(
+                    RETURNING, now.minusMinutes(1), PageRequest.of(0, sweepBatchSize))) {
+                settle(stuck, false);
+            }
+
+            if (expired > 0) {
+                logger.info("⏱️ Expired {} resource reservation(s)", expired);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Reservation sweep failed: {}", e.getMessage());
+        }
+    }
+
+    // ============================================================
+    // Queries
+    // ============================================================
+
+    public ResourceReservation get(String id) {
+        return reservationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
+    }
+
+    public List<ResourceReservation> findByMission(String missionId) {
+        return reservationRepository.findByMissionIdOrderByCreatedAtDesc(missionId);
+    }
+
+    public List<ResourceReservation> findByOwner(String ownerType, String ownerId) {
+        return reservationRepository.findByOwnerTypeAndOwnerIdOrderByCreatedAtDesc(ownerType(ownerType), ownerId);
+    }
+
+    public List<ResourceLedgerEntry> ledger(String reservationId) {
+        return ledgerRepository.findByReservationIdOrderByCreatedAtAsc(reservationId);
+    }
+
+    public List<ResourceLedgerEntry> ownerLedger(String ownerType, String ownerId, int limit) {
+        return ledgerRepository.findByOwnerTypeAndOwnerIdOrderByCreatedAtDesc(ownerType(ownerType), ownerId,
+                PageRequest.of(0, Math.max(1, Math.min(limit, 1000))));
+    }
+
+    // ============================================================
+    // Owner document updates
+    // ============================================================
+
+    /**
+     * Owner documents with no reservation holding their stock; absolute
+     * inventory writes are conditioned on this.
+     */
+    static Criteria noOpenHolds() {
+        return Criteria.where("heldReservations.0").exists(false);
+    }
+
+    // Owner has the reservation not yet applied and enough available stock on every line
+    private Query takeQuery(ResourceReservation reservation) {
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(ownerCriteria(reservation));
+        filters.add(Criteria.where("heldReservations").ne(reservation.getId()));
+        for (ReservationLine line : reservation.getLines()) {
+            if (isNgo(reservation)) {
+                String path = line.getCategory() + "." + line.getResource();
+                filters.add(Criteria.where(path + ".quantity").gte(line.getQuantity()));
+                filters.add(Criteria.where(path + ".available").is(true));
+            } else {
+                filters.add(Criteria.where("resources." + line.getCategory()).elemMatch(
+                        Criteria.where("name").is(line.getResource())
+                                .and("quantity").gte(line.getQuantity())
+                                .and("available").is(true)));
+            }
+        }
+        return Query.query(new Criteria().andOperator(filters));
+    }
+
+    // Owner still has the reservation applied
+    private Query heldQuery(ResourceReservation reservation) {
+        return Query.query(new Criteria().andOperator(ownerCriteria(reservation),
+                Criteria.where("heldReservations").is(reservation.getId())));
+    }
+
+    // $inc every line by sign * quantity; agency items are list elements matched by name
+    private Update stockUpdate(ResourceReservation reservation, int sign) {
+        Update update = new Update().set("lastUpdated", LocalDateTime.now());
+        List<ReservationLine> lines = reservation.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            ReservationLine line = lines.get(i);
+            if (isNgo(reservation)) {
+                update.inc(line.getCategory() + "." + line.getResource() + ".quantity", sign * line.getQuantity());
+            } else {
+                update.inc("resources." + line.getCategory() + ".$[r" + i + "].quantity", sign * line.getQuantity());
+                update.filterArray(Criteria.where("r" + i + ".name").is(line.getResource()));
+            }
+        }
+        return update;
+    }
+
+    /**
+     * Return a released/expired reservation's stock to its owner and record
+     * it. Safe to repeat: the return only applies while the owner still lists
+     * the reservation as held.
+     */
+    private void settle(ResourceReservation reservation, boolean wasHeld) {
+        try {
+            Object owner = mongoTemplate.findAndModify(
+                    heldQuery(reservation),
+                    stockUpdate(reservation, 1).pull("heldReservations", reservation.getId()),
+                    FindAndModifyOptions.options().returnNew(true),
+                    ownerClass(reservation.getOwnerType()));
+
+            if (owner != null && !wasHeld) {
+                // Stock was taken but the reserve step never recorded it
+                appendLedger(reservation, ResourceLedgerEntry.Type.RESERVE, -1);
+            }
+            if (owner != null || wasHeld) {
+                appendLedger(reservation, reservation.getStatus() == ReservationStatus.EXPIRED
+                        ? ResourceLedgerEntry.Type.EXPIRE
+                        : ResourceLedgerEntry.Type.RELEASE, 1);
+            }
+
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(reservation.getId())),
+                    new Update().set("settled", true).set("updatedAt", LocalDateTime.now()),
+                    ResourceReservation.class);
+            reservation.setSettled(true);
+
+            if (owner != null) {
+                refreshOwner(owner);
+            }
+        } catch (DataAccessException e) {
+            // Left unsettled; the sweeper retries
+            logger.error("❌ Failed to return stock for reservation {}: {}", reservation.getId(), e.getMessage());
+        }
+    }
+
+    // Owner documents changed outside save(): keep the derived views current
+    private void refreshOwner(Object owner) {
+        if (owner instanceof NGO ngo) {
+            availabilityService.sync(ngo);
+        } else if (owner instanceof GovernmentAgency agency) {
+            availabilityService.sync(agency);
+        }
+        matchingService.onSaved(owner);
+    }
+
+    // ============================================================
+    // Reservation state and ledger
+    // ============================================================
+
+    // Conditional status change; returns the reservation as it was, or null if it was not in a "from" state
+    private ResourceReservation transition(String id, List<ReservationStatus> from, ReservationStatus to) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(id).and("status").in(from)),
+                new Update().set("status", to).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(false),
+                ResourceReservation.class);
+    }
+
+    // Entry ids are deterministic, so entries written again by a retried step are dropped as duplicates
+    private void appendLedger(ResourceReservation reservation, ResourceLedgerEntry.Type type, int sign) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ResourceLedgerEntry> entries = new ArrayList<>();
+        List<ReservationLine> lines = reservation.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            ReservationLine line = lines.get(i);
+            entries.add(ResourceLedgerEntry.builder()
+                    .id(reservation.getId() + ":" + type + ":" + i)
+                    .reservationId(reservation.getId())
+                    .type(type)
+                    .ownerType(reservation.getOwnerType())
+                    .ownerId(reservation.getOwnerId())
+                    .missionId(reservation.getMissionId())
+                    .category(line.getCategory())
+                    .resource(line.getResource())
+                    .delta(sign * line.getQuantity())
+                    .createdAt(now)
+                    .build());
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ResourceLedgerEntry.class)
+                    .insert(entries)
+                    .execute();
+        } catch (BulkOperationException e) {
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY)) {
+                logger.error("❌ Failed to write ledger for reservation {}: {}", reservation.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // ============================================================
+    // Validation and errors
+    // ============================================================
+
+    private static String ownerType(String ownerType) {
+        String type = ownerType == null ? "" : ownerType.trim().toUpperCase();
+        if (!ResourceAvailabilityService.NGO_OWNER.equals(type) && !ResourceAvailabilityService.AGENCY_OWNER.equals(type)) {
+            throw new BadRequestException("ownerType must be NGO or AGENCY");
+        }
+        return type;
+    }
+
+    // Validate lines and fold repeated (category, resource) pairs into one
+    private List<ReservationLine> mergeLines(String ownerType, List<ReservationLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new BadRequestException("At least one reservation line is required");
+        }
+        Map<String, ReservationLine> merged = new LinkedHashMap<>();
+        for (ReservationLine line : lines) {
+            if (line == null || isBlank(line.getCategory()) || isBlank(line.getResource())) {
+                throw new BadRequestException("Every line needs a category and a resource");
+            }
+            if (line.getQuantity() <= 0) {
+                throw new BadRequestException("Quantity must be positive for " + line.getResource());
+            }
+            // Both end up in an update path
+            if (!isPathSafe(line.getCategory()) || !isPathSafe(line.getResource())) {
+                throw new BadRequestException("Invalid resource name: " + line.getCategory() + "/" + line.getResource());
+            }
+            if (ResourceAvailabilityService.NGO_OWNER.equals(ownerType) && !NGO_CATEGORIES.contains(line.getCategory())) {
+                throw new BadRequestException("Unknown NGO resource category: " + line.getCategory());
+            }
+            merged.merge(line.getCategory() + "\u0000" + line.getResource(),
+                    new ReservationLine(line.getCategory(), line.getResource(), line.getQuantity()),
+                    (a, b) -> new ReservationLine(a.getCategory(), a.getResource(), a.getQuantity() + b.getQuantity()));
+        }
+        if (merged.size() > maxLines) {
+            throw new BadRequestException("At most " + maxLines + " resources per reservation");
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    // Distinguish a missing owner from short stock, naming the short lines
+    private RuntimeException rejection(ResourceReservation reservation) {
+        Object owner = mongoTemplate.findOne(Query.query(ownerCriteria(reservation)), ownerClass(reservation.getOwnerType()));
+        if (owner == null) {
+            return new ResourceNotFoundException(reservation.getOwnerType(), "id", reservation.getOwnerId());
+        }
+        List<String> shortLines = new ArrayList<>();
+        for (ReservationLine line : reservation.getLines()) {
+            ResourceItem item = item(owner, line);
+            int available = item != null && item.isAvailable() ? item.getQuantity() : 0;
+            if (available < line.getQuantity()) {
+                shortLines.add(line.getResource() + " (requested " + line.getQuantity() + ", available " + available + ")");
+            }
+        }
+        return new ConflictException("Insufficient stock: " + (shortLines.isEmpty()
+                ? "changed concurrently, retry" : String.join(", ", shortLines)));
+    }
+
+    private RuntimeException stateConflict(String id, String action) {
+        ResourceReservation current = get(id);
+        return new ConflictException("Reservation " + id + " is " + current.getStatus() + " and cannot be " + action);
+    }
+
+    private static ResourceItem item(Object owner, ReservationLine line) {
+        if (owner instanceof NGO ngo) {
+            Map<String, ResourceItem> section = switch (line.getCategory()) {
+                case "reliefSupplies" -> ngo.getReliefSupplies();
+                case "medicalSupport" -> ngo.getMedicalSupport();
+                case "shelterEssentials" -> ngo.getShelterEssentials();
+                case "humanResources" -> ngo.getHumanResources();
+                default -> null;
+            };
+            return section != null ? section.get(line.getResource()) : null;
+        }
+        GovernmentAgency agency = (GovernmentAgency) owner;
+        if (agency.getResources() == null || agency.getResources().get(line.getCategory()) == null) {
+            return null;
+        }
+        return agency.getResources().get(line.getCategory()).stream()
+                .filter(item -> item != null && line.getResource().equals(item.getName()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static Criteria ownerCriteria(ResourceReservation reservation) {
+        return Criteria.where(isNgo(reservation) ? "ngoId" : "agencyId").is(reservation.getOwnerId());
+    }
+
+    private static Class<?> ownerClass(String ownerType) {
+        return ResourceAvailabilityService.NGO_OWNER.equals(ownerType) ? NGO.class : GovernmentAgency.class;
+    }
+
+    private static boolean isNgo(ResourceReservation reservation) {
+        return ResourceAvailabilityService.NGO_OWNER.equals(reservation.getOwnerType());
+    }
+
+    private static boolean isPathSafe(String name) {
+        return !name.contains(".") && !name.startsWith("$");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
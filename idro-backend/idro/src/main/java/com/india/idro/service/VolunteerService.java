@@ -31,22 +31,22 @@ public class VolunteerService {
         // Create 5 pre-defined volunteer accounts
         List<Volunteer> demoVolunteers = Arrays.asList(
                 createDemoVolunteer("V001", "1234", "Raj Kumar", "+91-98765-43210", "raj.kumar@email.com", "Mumbai",
-                        "First Aid, Rescue"),
+                        19.076, 72.8777, "First Aid, Rescue"),
                 createDemoVolunteer("V002", "1234", "Priya Sharma", "+91-98765-43211", "priya.sharma@email.com", "Delhi",
-                        "Medical Support, Counseling"),
+                        28.6139, 77.209, "Medical Support, Counseling"),
                 createDemoVolunteer("V003", "1234", "Amit Patel", "+91-98765-43212", "amit.patel@email.com", "Bangalore",
-                        "Logistics, Distribution"),
+                        12.9716, 77.5946, "Logistics, Distribution"),
                 createDemoVolunteer("V004", "1234", "Sneha Reddy", "+91-98765-43213", "sneha.reddy@email.com", "Chennai",
-                        "Communication, Coordination"),
+                        13.0827, 80.2707, "Communication, Coordination"),
                 createDemoVolunteer("V005", "1234", "Vikram Singh", "+91-98765-43214", "vikram.singh@email.com",
-                        "Kolkata", "Technical Support, IT"));
+                        "Kolkata", 22.5726, 88.3639, "Technical Support, IT"));
 
         volunteerRepository.saveAll(demoVolunteers);
         System.out.println("✅ Successfully initialized " + demoVolunteers.size() + " volunteer demo accounts");
     }
 
     private Volunteer createDemoVolunteer(String volunteerId, String password, String name,
-            String mobileNumber, String email, String location, String skills) {
+            String mobileNumber, String email, String location, double latitude, double longitude, String skills) {
         Volunteer volunteer = new Volunteer();
         volunteer.setVolunteerId(volunteerId);
         volunteer.setPassword(password);
@@ -54,6 +54,8 @@ public class VolunteerService {
         volunteer.setMobileNumber(mobileNumber);
         volunteer.setEmail(email);
         volunteer.setLocation(location);
+        volunteer.setLatitude(latitude);
+        volunteer.setLongitude(longitude);
         volunteer.setSkills(skills);
         volunteer.setAvailable(true);
         return volunteer;
@@ -71,4 +73,15 @@ public class VolunteerService {
     public Volunteer updateVolunteer(Volunteer volunteer) {
         return volunteerRepository.save(volunteer);
     }
+
+    // Base location for nearest-responder matching (the save event updates the index)
+    public Volunteer updateLocation(String volunteerId, double latitude, double longitude) {
+        Volunteer volunteer = getVolunteerByVolunteerId(volunteerId);
+        if (volunteer == null) {
+            return null;
+        }
+        volunteer.setLatitude(latitude);
+        volunteer.setLongitude(longitude);
+        return volunteerRepository.save(volunteer);
+    }
 }
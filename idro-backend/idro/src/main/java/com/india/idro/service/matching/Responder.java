@@ -0,0 +1,117 @@
+package com.india.idro.service.matching;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.india.idro.model.GovernmentAgency;
+import com.india.idro.model.NGO;
+import com.india.idro.model.ResourceItem;
+import com.india.idro.model.Volunteer;
+import com.india.idro.model.enums.AvailabilityStatus;
+import com.india.idro.model.enums.CoverageRadius;
+import com.india.idro.model.enums.ResponseTime;
+
+/**
+ * Immutable, matching-ready view of an NGO, agency or volunteer held in the
+ * in-memory responder index.
+ *
+ * @param resources available stock keyed "category.item" (lower case);
+ *                  volunteer skills map to quantity 1
+ */
+record Responder(
+        Type type,
+        String id,
+        String name,
+        double latitude,
+        double longitude,
+        AvailabilityStatus availability,
+        ResponseTime responseTime,
+        CoverageRadius coverageRadius,
+        Set<String> disasterTypes,
+        Map<String, Integer> resources) {
+
+    enum Type {
+        NGO, AGENCY, VOLUNTEER
+    }
+
+    String key() {
+        return key(type, id);
+    }
+
+    static String key(Type type, String id) {
+        return type + ":" + id;
+    }
+
+    static Responder of(NGO ngo) {
+        if (ngo.getId() == null || ngo.getLatitude() == null || ngo.getLongitude() == null) {
+            return null;
+        }
+        Map<String, Integer> resources = new HashMap<>();
+        addAll(resources, "reliefSupplies", ngo.getReliefSupplies());
+        addAll(resources, "medicalSupport", ngo.getMedicalSupport());
+        addAll(resources, "shelterEssentials", ngo.getShelterEssentials());
+        addAll(resources, "humanResources", ngo.getHumanResources());
+        return new Responder(Type.NGO, ngo.getId(), ngo.getNgoName(), ngo.getLatitude(), ngo.getLongitude(),
+                ngo.getAvailabilityStatus(), ngo.getResponseTime(), ngo.getCoverageRadius(),
+                lowerCase(ngo.getSupportedDisasterTypes()), Map.copyOf(resources));
+    }
+
+    static Responder of(GovernmentAgency agency) {
+        if (agency.getId() == null || agency.getLatitude() == null || agency.getLongitude() == null) {
+            return null;
+        }
+        Map<String, Integer> resources = new HashMap<>();
+        if (agency.getResources() != null) {
+            agency.getResources().forEach((category, items) -> {
+                if (items != null) {
+                    items.forEach(item -> add(resources, category, item.getName(), item));
+                }
+            });
+        }
+        return new Responder(Type.AGENCY, agency.getId(), agency.getAgencyName(), agency.getLatitude(),
+                agency.getLongitude(), agency.getAvailabilityStatus(), agency.getResponseTime(),
+                agency.getCoverageRadius(), lowerCase(agency.getSupportedDisasterTypes()), Map.copyOf(resources));
+    }
+
+    static Responder of(Volunteer volunteer) {
+        if (volunteer.getId() == null || volunteer.getLatitude() == null || volunteer.getLongitude() == null) {
+            return null;
+        }
+        Map<String, Integer> skills = new HashMap<>();
+        if (volunteer.getSkills() != null) {
+            for (String skill : volunteer.getSkills().split(",")) {
+                if (!skill.isBlank()) {
+                    skills.put("skills." + skill.trim().toLowerCase(Locale.ROOT), 1);
+                }
+            }
+        }
+        return new Responder(Type.VOLUNTEER, volunteer.getId(), volunteer.getName(), volunteer.getLatitude(),
+                volunteer.getLongitude(),
+                volunteer.isAvailable() ? AvailabilityStatus.AVAILABLE : AvailabilityStatus.NOT_AVAILABLE,
+                null, null, Set.of(), Map.copyOf(skills));
+    }
+
+    private static void addAll(Map<String, Integer> resources, String category, Map<String, ResourceItem> items) {
+        if (items != null) {
+            items.forEach((name, item) -> add(resources, category, name, item));
+        }
+    }
+
+    private static void add(Map<String, Integer> resources, String category, String name, ResourceItem item) {
+        if (item != null && item.isAvailable() && item.getQuantity() > 0 && name != null) {
+            resources.merge((category + "." + name).toLowerCase(Locale.ROOT), item.getQuantity(), Integer::sum);
+        }
+    }
+
+    private static Set<String> lowerCase(List<String> values) {
+        Set<String> result = new HashSet<>();
+        if (values != null) {
+            values.forEach(value -> result.add(value.trim().toLowerCase(Locale.ROOT)));
+        }
+        return Set.copyOf(result);
+    }
+}
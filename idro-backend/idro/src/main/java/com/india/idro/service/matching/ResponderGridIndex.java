@@ -0,0 +1,178 @@
+package com.india.idro.service.matching;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Uniform latitude/longitude grid over responder locations.
+ *
+ * A radius query only visits the cells overlapping the query's bounding box,
+ * so its cost depends on local density rather than on the total number of
+ * responders. Updates replace a single responder in place.
+ *
+ * Each update of a key runs inside one compute on that key's slot, moving
+ * the cell membership with it, so concurrent updates of one responder can't
+ * leave it in two cells. Slots carry a version (removals leave a tombstone),
+ * so a full reload skips keys changed after its load started.
+ */
+class ResponderGridIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private final double cellDegrees;
+    private final long columns;
+
+    // cell -> (responder key -> responder)
+    private final Map<Long, Map<String, Responder>> cells = new ConcurrentHashMap<>();
+
+    // responder key -> current responder (null once removed) and the version of its last change
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicInteger located = new AtomicInteger();
+
+    private record Slot(Responder responder, long version) {
+    }
+
+    ResponderGridIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.columns = (long) Math.ceil(360 / cellDegrees);
+    }
+
+    void put(Responder responder) {
+        apply(responder.key(), responder, Long.MAX_VALUE);
+    }
+
+    void remove(String key) {
+        apply(key, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * Version of the latest change; take it before loading for replaceAll.
+     */
+    long version() {
+        return versions.get();
+    }
+
+    /**
+     * Replace the whole content with a full reload whose load started at
+     * loadedAt (see version()). Keys put or removed since then keep their
+     * newer state.
+     */
+    void replaceAll(Collection<Responder> responders, long loadedAt) {
+        Set<String> loaded = new HashSet<>();
+        for (Responder responder : responders) {
+            loaded.add(responder.key());
+            apply(responder.key(), responder, loadedAt);
+        }
+        for (String key : slots.keySet()) {
+            if (!loaded.contains(key)) {
+                apply(key, null, loadedAt);
+            }
+        }
+        // Tombstones only shield keys from loads that started before them
+        slots.values().removeIf(slot -> slot.responder() == null && slot.version() <= loadedAt);
+    }
+
+    int size() {
+        return located.get();
+    }
+
+    /**
+     * Visit every responder within radiusKm of a point, with its distance.
+     */
+    void forEachWithin(double latitude, double longitude, double radiusKm, BiConsumer<Responder, Double> visitor) {
+        double latSpan = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double lonSpan = cosLat < 1e-6 ? 180 : Math.min(180, radiusKm / (KM_PER_DEGREE_LAT * cosLat));
+
+        long minRow = row(Math.max(-90, latitude - latSpan));
+        long maxRow = row(Math.min(90, latitude + latSpan));
+        long minCol = col(longitude - lonSpan);
+        long maxCol = col(longitude + lonSpan);
+        boolean wholeRow = maxCol - minCol + 1 >= columns;
+
+        for (long r = minRow; r <= maxRow; r++) {
+            for (long c = wholeRow ? 0 : minCol; c <= (wholeRow ? columns - 1 : maxCol); c++) {
+                // Wrap around the antimeridian
+                Map<String, Responder> cell = cells.get(key(r, Math.floorMod(c, columns)));
+                if (cell == null) {
+                    continue;
+                }
+                for (Responder responder : cell.values()) {
+                    double distance = distanceKm(latitude, longitude, responder.latitude(), responder.longitude());
+                    if (distance <= radiusKm) {
+                        visitor.accept(responder, distance);
+                    }
+                }
+            }
+        }
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                        * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Replace one key's responder unless it changed after unlessChangedAfter; cell moves happen inside the compute
+    private void apply(String key, Responder next, long unlessChangedAfter) {
+        slots.compute(key, (k, slot) -> {
+            Responder previous = slot != null ? slot.responder() : null;
+            if ((slot != null && slot.version() > unlessChangedAfter) || (previous == null && next == null)) {
+                return slot;
+            }
+            if (previous != null) {
+                removeFromCell(previous);
+                located.decrementAndGet();
+            }
+            if (next != null) {
+                addToCell(next);
+                located.incrementAndGet();
+            }
+            return new Slot(next, versions.incrementAndGet());
+        });
+    }
+
+    // Both go through compute on the cell, so an emptied cell is never dropped under a concurrent add
+    private void addToCell(Responder responder) {
+        cells.compute(cellOf(responder.latitude(), responder.longitude()), (cell, members) -> {
+            Map<String, Responder> updated = members != null ? members : new ConcurrentHashMap<>();
+            updated.put(responder.key(), responder);
+            return updated;
+        });
+    }
+
+    private void removeFromCell(Responder responder) {
+        cells.computeIfPresent(cellOf(responder.latitude(), responder.longitude()), (cell, members) -> {
+            members.remove(responder.key());
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return key(row(latitude), Math.floorMod(col(longitude), columns));
+    }
+
+    private long row(double latitude) {
+        return (long) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private long col(double longitude) {
+        return (long) Math.floor((longitude + 180) / cellDegrees);
+    }
+
+    private static long key(long row, long col) {
+        return (row << 32) | (col & 0xffffffffL);
+    }
+}
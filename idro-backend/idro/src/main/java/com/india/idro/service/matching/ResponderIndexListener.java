@@ -0,0 +1,34 @@
+package com.india.idro.service.matching;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps the responder index current as NGOs, agencies and volunteers are
+ * saved or deleted through repositories/MongoTemplate in this process.
+ */
+@Component
+@RequiredArgsConstructor
+class ResponderIndexListener extends AbstractMongoEventListener<Object> {
+
+    private final ResponderMatchingService matchingService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        matchingService.onSaved(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        Object id = event.getSource().get("_id");
+        if (id != null && event.getType() != null) {
+            matchingService.onDeleted(event.getType(), id instanceof ObjectId objectId ? objectId.toHexString()
+                    : id.toString());
+        }
+    }
+}
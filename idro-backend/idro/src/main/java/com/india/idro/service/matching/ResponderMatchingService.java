@@ -0,0 +1,312 @@
+package com.india.idro.service.matching;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.india.idro.dto.ResponderMatch;
+import com.india.idro.exception.BadRequestException;
+import com.india.idro.exception.ResourceNotFoundException;
+import com.india.idro.model.Alert;
+import com.india.idro.model.Camp;
+import com.india.idro.model.GovernmentAgency;
+import com.india.idro.model.NGO;
+import com.india.idro.model.Volunteer;
+import com.india.idro.model.enums.AvailabilityStatus;
+import com.india.idro.model.enums.CoverageRadius;
+import com.india.idro.repository.AlertRepository;
+import com.india.idro.repository.CampRepository;
+import com.india.idro.repository.GovernmentAgencyRepository;
+import com.india.idro.repository.NGORepository;
+import com.india.idro.repository.VolunteerRepository;
+
+/**
+ * Ranks NGOs, government agencies and volunteers for a mission or camp.
+ *
+ * Responsibilities:
+ * - Keep an in-memory grid index of responder locations (full load on
+ * startup, incremental updates on every save/delete, periodic full refresh
+ * for writes made outside this process)
+ * - Score the responders within range of the target and return the top K
+ *
+ * Score (0-100):
+ * - distance 35 (linear, 0 at maxDistanceKm)
+ * - availability 15 (AVAILABLE full, LIMITED half; NOT_AVAILABLE is excluded)
+ * - response time 15 (IMMEDIATE ... TWENTY_FOUR_HOURS)
+ * - coverage 10 (target inside the responder's coverage radius)
+ * - disaster type 10 (supportedDisasterTypes contains the mission type)
+ * - resources 15 (available stock matching the requested needs)
+ *
+ * Responders without coordinates are not indexed.
+ */
+@Service
+public class ResponderMatchingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponderMatchingService.class);
+
+    private static final int MAX_RESULTS = 100;
+
+    // Reach assumed for responders without a coverage radius (volunteers)
+    private static final double DEFAULT_REACH_KM = 25;
+
+    private final NGORepository ngoRepository;
+    private final GovernmentAgencyRepository agencyRepository;
+    private final VolunteerRepository volunteerRepository;
+    private final AlertRepository alertRepository;
+    private final CampRepository campRepository;
+    private final ResponderGridIndex index;
+
+    public ResponderMatchingService(NGORepository ngoRepository, GovernmentAgencyRepository agencyRepository,
+            VolunteerRepository volunteerRepository, AlertRepository alertRepository, CampRepository campRepository,
+            @Value("${idro.matching.cell-degrees:0.5}") double cellDegrees) {
+        this.ngoRepository = ngoRepository;
+        this.agencyRepository = agencyRepository;
+        this.volunteerRepository = volunteerRepository;
+        this.alertRepository = alertRepository;
+        this.campRepository = campRepository;
+        this.index = new ResponderGridIndex(cellDegrees);
+    }
+
+    // ============================================================
+    // Index maintenance
+    // ============================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${idro.matching.refresh-interval-ms:600000}",
+            initialDelayString = "${idro.matching.refresh-interval-ms:600000}")
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        long loadedAt = index.version();
+        List<Responder> responders = new ArrayList<>();
+        ngoRepository.findAll().forEach(ngo -> addIfLocated(responders, Responder.of(ngo)));
+        agencyRepository.findAll().forEach(agency -> addIfLocated(responders, Responder.of(agency)));
+        volunteerRepository.findAll().forEach(volunteer -> addIfLocated(responders, Responder.of(volunteer)));
+        // Responders saved or deleted while loading keep the newer state
+        index.replaceAll(responders, loadedAt);
+        logger.info("🧭 Responder index refreshed: {} located responders in {}ms",
+                index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Re-index one saved responder (NGO, GovernmentAgency or Volunteer).
+     * Called by the save listener, and directly after field-level updates,
+     * which do not raise save events.
+     */
+    public void onSaved(Object entity) {
+        if (entity instanceof NGO ngo) {
+            update(Responder.Type.NGO, ngo.getId(), Responder.of(ngo));
+        } else if (entity instanceof GovernmentAgency agency) {
+            update(Responder.Type.AGENCY, agency.getId(), Responder.of(agency));
+        } else if (entity instanceof Volunteer volunteer) {
+            update(Responder.Type.VOLUNTEER, volunteer.getId(), Responder.of(volunteer));
+        }
+    }
+
+    void onDeleted(Class<?> type, String id) {
+        if (type == NGO.class) {
+            index.remove(Responder.key(Responder.Type.NGO, id));
+        } else if (type == GovernmentAgency.class) {
+            index.remove(Responder.key(Responder.Type.AGENCY, id));
+        } else if (type == Volunteer.class) {
+            index.remove(Responder.key(Responder.Type.VOLUNTEER, id));
+        }
+    }
+
+    private void update(Responder.Type type, String id, Responder responder) {
+        if (responder != null) {
+            index.put(responder);
+        } else if (id != null) {
+            // Location removed
+            index.remove(Responder.key(type, id));
+        }
+    }
+
+    private static void addIfLocated(List<Responder> responders, Responder responder) {
+        if (responder != null) {
+            responders.add(responder);
+        }
+    }
+
+    // ============================================================
+    // Matching
+    // ============================================================
+
+    /**
+     * Top-K responders for a mission (alert); needs default to medical
+     * support when the alert reports injured people.
+     */
+    public List<ResponderMatch> matchForMission(String alertId, int k, double maxDistanceKm,
+            Set<String> types, List<String> needs) {
+        Alert alert = alertRepository.findById(alertId)
+                .orElseThrow(() -> new ResourceNotFoundException("Alert", "id", alertId));
+        if (alert.getLatitude() == null || alert.getLongitude() == null) {
+            throw new BadRequestException("Alert " + alertId + " has no coordinates");
+        }
+        List<String> effectiveNeeds = needs != null && !needs.isEmpty() ? needs
+                : alert.getInjuredCount() > 0 ? List.of("medical") : List.of();
+        String disasterType = alert.getType() != null ? alert.getType().name() : null;
+        return match(alert.getLatitude(), alert.getLongitude(), disasterType, effectiveNeeds, k, maxDistanceKm, types);
+    }
+
+    /**
+     * Top-K responders for a camp; the disaster type comes from its alert and
+     * needs default to medical support when the camp needs medicines.
+     */
+    public List<ResponderMatch> matchForCamp(String campId, int k, double maxDistanceKm,
+            Set<String> types, List<String> needs) {
+        Camp camp = campRepository.findById(campId)
+                .orElseThrow(() -> new ResourceNotFoundException("Camp", "id", campId));
+        if (camp.getLatitude() == null || camp.getLongitude() == null) {
+            throw new BadRequestException("Camp " + campId + " has no coordinates");
+        }
+        String disasterType = camp.getAlertId() == null ? null
+                : alertRepository.findById(camp.getAlertId())
+                        .map(alert -> alert.getType() != null ? alert.getType().name() : null)
+                        .orElse(null);
+        List<String> effectiveNeeds = needs != null && !needs.isEmpty() ? needs
+                : camp.isMedicinesNeeded() ? List.of("medical") : List.of();
+        return match(camp.getLatitude(), camp.getLongitude(), disasterType, effectiveNeeds, k, maxDistanceKm, types);
+    }
+
+    /**
+     * Top-K responders around a point.
+     *
+     * @param types responder types to consider (NGO, AGENCY, VOLUNTEER); empty = all
+     * @param needs resource keywords matched against "category.item" keys, e.g. "medical", "food", "tents"
+     */
+    public List<ResponderMatch> match(double latitude, double longitude, String disasterType, List<String> needs,
+            int k, double maxDistanceKm, Set<String> types) {
+        if (maxDistanceKm <= 0) {
+            throw new BadRequestException("maxDistanceKm must be positive");
+        }
+        int limit = Math.max(1, Math.min(k, MAX_RESULTS));
+        Set<Responder.Type> wanted = parseTypes(types);
+        String type = disasterType != null ? disasterType.toLowerCase(Locale.ROOT) : null;
+        List<String> keywords = needs == null ? List.of()
+                : needs.stream().map(need -> need.trim().toLowerCase(Locale.ROOT)).filter(n -> !n.isEmpty()).toList();
+
+        // Min-heap of the best K so far
+        PriorityQueue<ResponderMatch> best = new PriorityQueue<>(Comparator.comparingDouble(ResponderMatch::getScore));
+        index.forEachWithin(latitude, longitude, maxDistanceKm, (responder, distance) -> {
+            if (!wanted.contains(responder.type())
+                    || responder.availability() == AvailabilityStatus.NOT_AVAILABLE) {
+                return;
+            }
+            ResponderMatch match = score(responder, distance, maxDistanceKm, type, keywords);
+            if (best.size() < limit) {
+                best.add(match);
+            } else if (match.getScore() > best.peek().getScore()) {
+                best.poll();
+                best.add(match);
+            }
+        });
+
+        List<ResponderMatch> ranked = new ArrayList<>(best);
+        ranked.sort(Comparator.comparingDouble(ResponderMatch::getScore).reversed()
+                .thenComparingDouble(ResponderMatch::getDistanceKm));
+        return ranked;
+    }
+
+    private ResponderMatch score(Responder responder, double distance, double maxDistanceKm, String disasterType,
+            Collection<String> needs) {
+        double reach = reachKm(responder.coverageRadius());
+        boolean withinCoverage = distance <= reach;
+        boolean supportsType = disasterType != null && responder.disasterTypes().contains(disasterType);
+
+        Map<String, Integer> matched = new LinkedHashMap<>();
+        double resourceScore = 1.0;
+        if (!needs.isEmpty()) {
+            double total = 0;
+            for (String need : needs) {
+                int quantity = 0;
+                for (Map.Entry<String, Integer> entry : responder.resources().entrySet()) {
+                    if (entry.getKey().contains(need)) {
+                        quantity += entry.getValue();
+                        matched.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                // Saturates at 100 units
+                total += Math.min(1.0, Math.log10(1 + quantity) / 2);
+            }
+            resourceScore = total / needs.size();
+        }
+
+        double typeScore = disasterType == null || responder.disasterTypes().isEmpty() ? 0.5
+                : supportsType ? 1.0 : 0.0;
+
+        double score = 35 * (1 - distance / maxDistanceKm)
+                + 15 * (responder.availability() == AvailabilityStatus.LIMITED ? 0.5 : 1.0)
+                + 15 * responseScore(responder)
+                + 10 * (withinCoverage ? 1.0 : 0.0)
+                + 10 * typeScore
+                + 15 * resourceScore;
+
+        return ResponderMatch.builder()
+                .responderType(responder.type().name())
+                .id(responder.id())
+                .name(responder.name())
+                .distanceKm(Math.round(distance * 10) / 10.0)
+                .score(Math.round(score * 10) / 10.0)
+                .availabilityStatus(responder.availability() != null ? responder.availability().name() : null)
+                .responseTime(responder.responseTime() != null ? responder.responseTime().name() : null)
+                .coverageRadius(responder.coverageRadius() != null ? responder.coverageRadius().name() : null)
+                .withinCoverage(withinCoverage)
+                .supportsDisasterType(supportsType)
+                .matchedResources(matched.isEmpty() ? null : matched)
+                .build();
+    }
+
+    private static double responseScore(Responder responder) {
+        if (responder.responseTime() == null) {
+            return 0.5;
+        }
+        return switch (responder.responseTime()) {
+            case IMMEDIATE -> 1.0;
+            case SIX_HOURS -> 0.7;
+            case TWELVE_HOURS -> 0.4;
+            case TWENTY_FOUR_HOURS -> 0.2;
+        };
+    }
+
+    private static double reachKm(CoverageRadius radius) {
+        if (radius == null) {
+            return DEFAULT_REACH_KM;
+        }
+        return switch (radius) {
+            case FIVE_KM -> 5;
+            case TEN_KM -> 10;
+            case DISTRICT_WIDE -> 50;
+            case STATE_WIDE -> 300;
+        };
+    }
+
+    private static Set<Responder.Type> parseTypes(Set<String> types) {
+        if (types == null || types.isEmpty()) {
+            return EnumSet.allOf(Responder.Type.class);
+        }
+        Set<Responder.Type> parsed = EnumSet.noneOf(Responder.Type.class);
+        for (String type : types) {
+            try {
+                parsed.add(Responder.Type.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown responder type: " + type + " (NGO, AGENCY, VOLUNTEER)");
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,113 @@
+package com.india.idro;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.india.idro.controller.AlertController;
+import com.india.idro.exception.ConflictException;
+import com.india.idro.model.Alert;
+import com.india.idro.repository.AlertRepository;
+
+@SpringBootTest
+class AlertAssignmentConcurrencyTests {
+
+	private static final int RESPONDERS = 32;
+
+	@Autowired
+	private AlertController alertController;
+
+	@Autowired
+	private AlertRepository alertRepository;
+
+	private String alertId;
+
+	@AfterEach
+	void cleanUp() {
+		if (alertId != null) {
+			alertRepository.deleteById(alertId);
+		}
+	}
+
+	@Test
+	void exactlyOneResponderWinsAnOpenMission() throws Exception {
+		Alert alert = new Alert();
+		alert.setLocation("Concurrency test");
+		alert.setMissionStatus("OPEN");
+		alertId = alertRepository.save(alert).getId();
+
+		ExecutorService pool = Executors.newFixedThreadPool(RESPONDERS);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger wins = new AtomicInteger();
+		AtomicInteger conflicts = new AtomicInteger();
+		List<Future<?>> calls = new ArrayList<>();
+
+		for (int i = 0; i < RESPONDERS; i++) {
+			String responder = "NGO-" + i;
+			calls.add(pool.submit(() -> {
+				start.await();
+				try {
+					alertController.assignMission(alertId, responder);
+					wins.incrementAndGet();
+				} catch (ConflictException e) {
+					conflicts.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+
+		start.countDown();
+		for (Future<?> call : calls) {
+			call.get(30, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+
+		assertEquals(1, wins.get());
+		assertEquals(RESPONDERS - 1, conflicts.get());
+
+		Alert stored = alertRepository.findById(alertId).orElseThrow();
+		assertEquals("ASSIGNED", stored.getMissionStatus());
+		assertEquals(1L, stored.getVersion());
+	}
+
+	@Test
+	void updateFromBeforeAnAssignmentDoesNotOverwriteIt() {
+		Alert alert = new Alert();
+		alert.setLocation("Stale update test");
+		alert.setMissionStatus("OPEN");
+		alertId = alertRepository.save(alert).getId();
+		Alert staleRead = alertRepository.findById(alertId).orElseThrow();
+
+		alertController.assignMission(alertId, "NGO-1");
+
+		// Versioned update based on the read before the assignment
+		staleRead.setMissionStatus("OPEN");
+		staleRead.setResponderName(null);
+		assertThrows(OptimisticLockingFailureException.class,
+				() -> alertController.updateAlert(alertId, staleRead));
+
+		// Unversioned update keeps the assignment
+		staleRead.setVersion(null);
+		staleRead.setDetails("Road blocked");
+		alertController.updateAlert(alertId, staleRead);
+
+		Alert stored = alertRepository.findById(alertId).orElseThrow();
+		assertEquals("ASSIGNED", stored.getMissionStatus());
+		assertEquals("NGO-1", stored.getResponderName());
+		assertEquals("Road blocked", stored.getDetails());
+	}
+}
@@ -0,0 +1,140 @@
+package com.india.idro;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.india.idro.controller.ReservationController;
+import com.india.idro.dto.ReservationRequest;
+import com.india.idro.exception.ConflictException;
+import com.india.idro.model.NGO;
+import com.india.idro.model.ReservationLine;
+import com.india.idro.model.ResourceAvailability;
+import com.india.idro.model.ResourceItem;
+import com.india.idro.model.ResourceLedgerEntry;
+import com.india.idro.model.ResourceReservation;
+import com.india.idro.repository.NGORepository;
+import com.india.idro.service.NGOService;
+
+@SpringBootTest
+class ResourceReservationConcurrencyTests {
+
+	private static final int DISPATCHERS = 32;
+
+	private static final int STOCK = 10;
+
+	private static final String NGO_ID = "NGO-RESERVATION-TEST";
+
+	@Autowired
+	private ReservationController reservationController;
+
+	@Autowired
+	private NGOService ngoService;
+
+	@Autowired
+	private NGORepository ngoRepository;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@BeforeEach
+	void createOwner() {
+		cleanUp();
+		NGO ngo = new NGO();
+		ngo.setNgoId(NGO_ID);
+		ngo.setNgoName("Reservation test");
+		ngo.setMedicalSupport(new HashMap<>(Map.of("ambulances", new ResourceItem(true, STOCK))));
+		ngoRepository.save(ngo);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		Query owner = Query.query(Criteria.where("ownerId").is(NGO_ID));
+		mongoTemplate.remove(owner, ResourceReservation.class);
+		mongoTemplate.remove(owner, ResourceLedgerEntry.class);
+		mongoTemplate.remove(owner, ResourceAvailability.class);
+		mongoTemplate.remove(Query.query(Criteria.where("ngoId").is(NGO_ID)), NGO.class);
+	}
+
+	@Test
+	void concurrentReservationsNeverOversubscribeStock() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(DISPATCHERS);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger held = new AtomicInteger();
+		AtomicInteger conflicts = new AtomicInteger();
+		List<Future<?>> calls = new ArrayList<>();
+
+		for (int i = 0; i < DISPATCHERS; i++) {
+			String mission = "MISSION-" + i;
+			calls.add(pool.submit(() -> {
+				start.await();
+				try {
+					reservationController.reserve(ambulances(mission, 1));
+					held.incrementAndGet();
+				} catch (ConflictException e) {
+					conflicts.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+
+		start.countDown();
+		for (Future<?> call : calls) {
+			call.get(30, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+
+		assertEquals(STOCK, held.get());
+		assertEquals(DISPATCHERS - STOCK, conflicts.get());
+
+		NGO stored = ngoRepository.findByNgoId(NGO_ID).orElseThrow();
+		assertEquals(0, stored.getMedicalSupport().get("ambulances").getQuantity());
+		assertEquals(STOCK, stored.getHeldReservations().size());
+	}
+
+	@Test
+	void stockEditIsRefusedWhileAHoldIsOpen() {
+		ResourceReservation reservation = reservationController.reserve(ambulances("MISSION-1", 4)).getBody();
+
+		Map<String, ResourceItem> recount = new HashMap<>(Map.of("ambulances", new ResourceItem(true, 20)));
+		assertThrows(ConflictException.class,
+				() -> ngoService.updateResources(NGO_ID, null, recount, null, null, null));
+
+		// Releasing returns the hold to the untouched count; the recount then applies as written
+		reservationController.release(reservation.getId());
+		assertEquals(STOCK, ngoRepository.findByNgoId(NGO_ID).orElseThrow()
+				.getMedicalSupport().get("ambulances").getQuantity());
+
+		ngoService.updateResources(NGO_ID, null, recount, null, null, null);
+		assertEquals(20, ngoRepository.findByNgoId(NGO_ID).orElseThrow()
+				.getMedicalSupport().get("ambulances").getQuantity());
+	}
+
+	private static ReservationRequest ambulances(String missionId, int quantity) {
+		ReservationRequest request = new ReservationRequest();
+		request.setOwnerType("NGO");
+		request.setOwnerId(NGO_ID);
+		request.setMissionId(missionId);
+		request.setLines(List.of(new ReservationLine("medicalSupport", "ambulances", quantity)));
+		return request;
+	}
+}
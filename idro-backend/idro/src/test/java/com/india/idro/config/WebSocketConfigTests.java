@@ -0,0 +1,41 @@
+package com.india.idro.config;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Builds only the WebSocket configuration (no MongoDB), so wiring mistakes
+ * in the broker, channel executors and their metrics fail fast.
+ */
+@SpringJUnitWebConfig(WebSocketConfigTests.Slice.class)
+class WebSocketConfigTests {
+
+	// Metrics first: its executors are resolved by declared type before the broker config has created them
+	@Configuration
+	@Import({ WebSocketChannelMetrics.class, WebSocketConfig.class })
+	static class Slice {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void channelExecutorsAreInstrumented() {
+		assertNotNull(meterRegistry.find("executor.pool.size").tag("name", "websocketInbound").gauge());
+		assertNotNull(meterRegistry.find("executor.pool.size").tag("name", "websocketOutbound").gauge());
+	}
+}
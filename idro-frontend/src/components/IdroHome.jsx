@@ -18,10 +18,11 @@ import {
   Users,
   X
 } from 'lucide-react';
-import { useEffect, useState } from 'react';
+import { useEffect, useMemo, useState } from 'react';
 import { Circle, MapContainer, Marker, Popup, TileLayer } from 'react-leaflet';
 import { Link } from 'react-router-dom';
 import { idroApi } from '../services/api';
+import useLiveCollection from '../services/useLiveCollection';
 
 // --- LEAFLET ICON FIX ---
 import markerIcon2x from 'leaflet/dist/images/marker-icon-2x.png';
@@ -112,26 +113,16 @@ const AlertMarker = ({ alert }) => {
 
 export default function IdroHome() {
   const navigate = useNavigate();
-  const [alerts, setAlerts] = useState([]);
   const [showDisasterModal, setShowDisasterModal] = useState(false);
   const [showResponseModal, setShowResponseModal] = useState(false);
   const [showDonationModal, setShowDonationModal] = useState(false); // Donation Modal State
 
-  useEffect(() => {
-    const fetchPublicAlerts = async () => {
-      try {
-        const res = await idroApi.getAlerts();
-        if (res.data && res.data.length > 0) {
-          const publicAlerts = res.data.filter(
-            a => a.missionStatus === 'OPEN' && a.trustScore > 75);
-          setAlerts(publicAlerts);
-        }
-      } catch (err) { console.error("API Error"); }
-    };
-    fetchPublicAlerts();
-    const interval = setInterval(fetchPublicAlerts, 10000);
-    return () => clearInterval(interval);
-  }, []);
+  // Live alert list: one load, then pushed deltas over WebSocket
+  const { items: liveAlerts } = useLiveCollection('alerts', idroApi.getAlerts);
+  const alerts = useMemo(
+    () => liveAlerts.filter(a => a.missionStatus === 'OPEN' && a.trustScore > 75),
+    [liveAlerts]
+  );
 
   return (
     // ✅ h-screen + overflow-hidden prevents the "White Blank Page" issue
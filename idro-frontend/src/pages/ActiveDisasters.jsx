@@ -1,53 +1,23 @@
 import { Activity, MapPin, TriangleAlert } from "lucide-react";
-import { useCallback, useEffect, useState } from "react";
+import { useMemo } from "react";
 import { idroApi } from "../services/api";
+import useLiveCollection from "../services/useLiveCollection";
 
-export default function ActiveDisasters() {
-  const [disasters, setDisasters] = useState([]);
-  const [loading, setLoading] = useState(true);
-
+// One card per location
+const removeDuplicates = (data) => {
+  const uniqueMap = new Map();
+  data.forEach(item => uniqueMap.set(item.location, item));
+  return Array.from(uniqueMap.values());
+};
 
-  const removeDuplicates = (data) => {
-    const uniqueMap = new Map();
-    data.forEach(item => uniqueMap.set(item.location, item));
-    return Array.from(uniqueMap.values());
-  };
-
-  const fetchDisasters = useCallback(async () => {
-    try {
-      const res = await idroApi.getAlerts();
-      console.log("🔍 Raw API Response:", res.data);
-
-      // Normalize MongoDB _id → id
-      const normalized = res.data.map(item => ({
-        ...item,
-        id: item.id || item._id
-      }));
-      console.log("🔍 Normalized data:", normalized);
-
-      const active = normalized.filter(alert => alert.missionStatus === "OPEN");
-      console.log("🔍 Filtered OPEN alerts:", active);
-
-      const uniqueDisasters = removeDuplicates(active);
-      console.log("🔍 Unique disasters:", uniqueDisasters);
-
-      setDisasters(uniqueDisasters);
-    } catch (err) {
-      console.error("❌ Failed to fetch active disasters", err);
-    } finally {
-      setLoading(false);
-    }
-  }, []);
-
-  useEffect(() => {
-    fetchDisasters(); // first load
-
-    const interval = setInterval(() => {
-      fetchDisasters(); // refresh every 3 seconds
-    }, 3000);
+export default function ActiveDisasters() {
+  // Live alert list: one load, then pushed deltas over WebSocket
+  const { items: alerts, setItems: setAlerts, loading } = useLiveCollection("alerts", idroApi.getAlerts);
 
-    return () => clearInterval(interval); // cleanup
-  }, [fetchDisasters]);
+  const disasters = useMemo(
+    () => removeDuplicates(alerts.filter(alert => alert.missionStatus === "OPEN")),
+    [alerts]
+  );
 
   // DELETE FUNCTION
   const handleDelete = async (e, id) => {
@@ -58,7 +28,7 @@ export default function ActiveDisasters() {
     if (window.confirm("⚠️ Are you sure you want to DELETE this Disaster Alert?")) {
       try {
         await idroApi.deleteAlert(id);
-        setDisasters(prev => prev.filter(d => d.id !== id));
+        setAlerts(prev => prev.filter(d => d.id !== id));
       } catch (error) {
         console.error(error);
         alert("Delete failed. Is backend running?");
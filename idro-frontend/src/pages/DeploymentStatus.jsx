@@ -1,46 +1,26 @@
 import { Activity, MapPin, Truck } from "lucide-react";
-import { useCallback, useEffect, useState } from "react";
+import { useMemo } from "react";
 import { idroApi } from "../services/api";
+import useLiveCollection from "../services/useLiveCollection";
 
-export default function DeploymentStatus() {
-    const [disasters, setDisasters] = useState([]);
-    const [loading, setLoading] = useState(true);
-
-    const removeDuplicates = (data) => {
-        const uniqueMap = new Map();
-        data.forEach(item => uniqueMap.set(item.location, item));
-        return Array.from(uniqueMap.values());
-    };
+// One card per location
+const removeDuplicates = (data) => {
+    const uniqueMap = new Map();
+    data.forEach(item => uniqueMap.set(item.location, item));
+    return Array.from(uniqueMap.values());
+};
 
-    const fetchDisasters = useCallback(async () => {
-        try {
-            const res = await idroApi.getAlerts();
-
-            // Normalize MongoDB _id → id
-            const normalized = res.data.map(item => ({
-                ...item,
-                id: item.id || item._id
-            }));
-
-            // Show OPEN and ASSIGNED missions for deployment status
-            const active = normalized.filter(alert =>
-                alert.missionStatus === "OPEN" || alert.missionStatus === "ASSIGNED"
-            );
-
-            const uniqueDisasters = removeDuplicates(active);
-            setDisasters(uniqueDisasters);
-        } catch (err) {
-            console.error("❌ Failed to fetch deployment status", err);
-        } finally {
-            setLoading(false);
-        }
-    }, []);
-
-    useEffect(() => {
-        fetchDisasters();
-        const interval = setInterval(fetchDisasters, 3000);
-        return () => clearInterval(interval);
-    }, [fetchDisasters]);
+export default function DeploymentStatus() {
+    // Live alert list: one load, then pushed deltas over WebSocket
+    const { items: alerts, loading } = useLiveCollection("alerts", idroApi.getAlerts);
+
+    // Show OPEN and ASSIGNED missions for deployment status
+    const disasters = useMemo(
+        () => removeDuplicates(alerts.filter(alert =>
+            alert.missionStatus === "OPEN" || alert.missionStatus === "ASSIGNED"
+        )),
+        [alerts]
+    );
 
     const getCardStyle = (urgency, color) => {
         // High / Immediate
@@ -1,8 +1,12 @@
 import * as Icons from "lucide-react";
-import { useEffect, useState } from "react";
+import { useCallback, useEffect, useRef, useState } from "react";
 import { useNavigate, useParams } from "react-router-dom";
 import ReliefCalculationStandards from "../components/ReliefCalculationStandards";
 import { idroApi } from "../services/api";
+import useLiveCollection from "../services/useLiveCollection";
+
+// Wait for a burst of camp updates to settle before re-running the analysis
+const ANALYSIS_REFRESH_DELAY_MS = 5000;
 
 export default function DisasterAnalyzer() {
   const { id } = useParams();
@@ -13,6 +17,42 @@ export default function DisasterAnalyzer() {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
 
+  // This mission's camps only (/topic/missions/{id}/camps); their changes re-run the analysis
+  const loadMissionCamps = useCallback(() => idroApi.getCampsByAlert(id), [id]);
+  const { items: missionCamps, loading: campsLoading } =
+    useLiveCollection("camps", loadMissionCamps, { mission: id });
+  const campsLoaded = useRef(false);
+
+  const loadAnalysis = async () => {
+    try {
+      const impactRes = await idroApi.getImpactAnalysis(id);
+      const analysis = impactRes.data;
+
+      if (analysis) {
+        // DIRECT MAPPING FROM BACKEND (ZERO LOGIC ON FRONTEND)
+        const enrichedCamps = analysis.campAnalysisList.map(c => ({
+          id: c.campId,
+          name: c.campName,
+          people: c.population,
+          injured: c.injuredCount,
+          foodPackets: c.foodPackets,
+          waterLiters: c.waterLiters,
+          beds: c.beds,
+          medicalKits: c.medicalKits,
+          volunteers: c.volunteers,
+          ambulances: c.ambulances,
+          riskLevel: c.riskLevel,
+          urgency: c.urgency,
+          saturation: Number(c.saturationPercentage) || 0,
+          explanations: c.explanations || []
+        }));
+
+        setCamps(enrichedCamps);
+      }
+    } catch (aiErr) {
+      console.warn("AI Analysis failed:", aiErr);
+    }
+  };
 
   const fetchData = async () => {
     try {
@@ -25,34 +65,7 @@ export default function DisasterAnalyzer() {
       if (!found) throw new Error("Disaster not found");
       setDisaster(found);
 
-      try {
-        const impactRes = await idroApi.getImpactAnalysis(id);
-        const analysis = impactRes.data;
-
-        if (analysis) {
-          // DIRECT MAPPING FROM BACKEND (ZERO LOGIC ON FRONTEND)
-          const enrichedCamps = analysis.campAnalysisList.map(c => ({
-            id: c.campId,
-            name: c.campName,
-            people: c.population,
-            injured: c.injuredCount,
-            foodPackets: c.foodPackets,
-            waterLiters: c.waterLiters,
-            beds: c.beds,
-            medicalKits: c.medicalKits,
-            volunteers: c.volunteers,
-            ambulances: c.ambulances,
-            riskLevel: c.riskLevel,
-            urgency: c.urgency,
-            saturation: Number(c.saturationPercentage) || 0,
-            explanations: c.explanations || []
-          }));
-
-          setCamps(enrichedCamps);
-        }
-      } catch (aiErr) {
-        console.warn("AI Analysis failed:", aiErr);
-      }
+      await loadAnalysis();
     } catch (err) {
       console.error("Error fetching data:", err);
       setError("Failed to load analysis.");
@@ -65,6 +78,17 @@ export default function DisasterAnalyzer() {
     if (id) fetchData();
   }, [id]);
 
+  useEffect(() => {
+    if (campsLoading) return;
+    if (!campsLoaded.current) {
+      // Initial load: fetchData already ran the analysis
+      campsLoaded.current = true;
+      return;
+    }
+    const timer = setTimeout(loadAnalysis, ANALYSIS_REFRESH_DELAY_MS);
+    return () => clearTimeout(timer);
+  }, [missionCamps, campsLoading]);
+
   if (loading) return (
     <div className="min-h-screen bg-slate-950 text-white flex flex-col items-center justify-center gap-4">
       <div className="w-12 h-12 border-4 border-blue-600 border-t-transparent rounded-full animate-spin"></div>
@@ -1,47 +1,18 @@
 import { Activity, ArrowRight, BarChart3, Trash2, XCircle } from "lucide-react";
-import { useEffect, useState } from "react";
+import { useMemo } from "react";
 import { useNavigate } from "react-router-dom";
 import { idroApi } from "../services/api"; // Import Real API
+import useLiveCollection from "../services/useLiveCollection";
 
 export default function ImpactList() {
-  const [disasters, setDisasters] = useState([]);
-  const [loading, setLoading] = useState(true);
-  const [error, setError] = useState(null); // ✅ NEW: Track Errors
   const navigate = useNavigate();
 
-  useEffect(() => {
-    const fetchDisasters = async (isInitialLoad = false) => {
-      try {
-        if (isInitialLoad) {
-          setLoading(true);
-        }
-        const res = await idroApi.getAlerts();
-        // Normalize MongoDB _id → id
-        const normalized = res.data.map(item => ({
-          ...item,
-          id: item.id || item._id
-        }));
-        const active = normalized.filter(d => d.missionStatus === 'OPEN');
-        setDisasters(active);
-        setError(null);
-      } catch (err) {
-        console.error("Failed to load impact list", err);
-        setError("⚠ UNABLE TO CONNECT TO SERVER. Is Backend Running?");
-      } finally {
-        if (isInitialLoad) {
-          setLoading(false);
-        }
-      }
-    };
-
-    fetchDisasters(true); // first load with loading state
-
-    const interval = setInterval(() => {
-      fetchDisasters(false); // auto refresh without loading state
-    }, 3000);
+  // Live alert list: one load, then pushed deltas over WebSocket
+  const { items: alerts, setItems: setAlerts, loading, error: loadError } =
+    useLiveCollection("alerts", idroApi.getAlerts);
 
-    return () => clearInterval(interval); // cleanup
-  }, []);
+  const disasters = useMemo(() => alerts.filter(d => d.missionStatus === 'OPEN'), [alerts]);
+  const error = loadError ? "⚠ UNABLE TO CONNECT TO SERVER. Is Backend Running?" : null;
 
   const handleDelete = async (e, id) => {
     e.stopPropagation(); // Avoid navigating to details
@@ -50,7 +21,7 @@ export default function ImpactList() {
     if (window.confirm("⚠️ This will PERMANENTLY DELETE this disaster and its analysis data. Proceed?")) {
       try {
         await idroApi.deleteAlert(id);
-        setDisasters(prev => prev.filter(d => d.id !== id));
+        setAlerts(prev => prev.filter(d => d.id !== id));
       } catch (err) {
         console.error("Delete failed", err);
         alert("Failed to delete disaster. Is server reachable?");
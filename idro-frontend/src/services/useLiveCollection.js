@@ -0,0 +1,109 @@
+import { useCallback, useEffect, useRef, useState } from "react";
+import websocketService from "./websocketService";
+
+// Polling interval used only while the WebSocket is unavailable
+const FALLBACK_POLL_MS = 15000;
+
+const SUBSCRIBE = {
+  alerts: (cb) => websocketService.subscribeToAlerts(cb),
+  camps: (cb) => websocketService.subscribeToCamps(cb),
+  actions: (cb) => websocketService.subscribeToActions(cb),
+};
+
+// Normalize MongoDB _id → id
+const normalize = (item) => ({ ...item, id: item.id || item._id });
+
+// Apply one server change event to a list of documents (idempotent)
+export const applyChange = (items, event) => {
+  switch (event.type) {
+    case "CREATED": {
+      const doc = normalize(event.payload);
+      return items.some(item => item.id === doc.id)
+        ? items.map(item => (item.id === doc.id ? doc : item))
+        : [...items, doc];
+    }
+    case "UPDATED":
+      // Unknown ids are ignored: a partial document cannot be rendered
+      return items.map(item => (item.id === event.id ? { ...item, ...event.changes } : item));
+    case "DELETED":
+      return items.filter(item => item.id !== event.id);
+    default:
+      return items;
+  }
+};
+
+/**
+ * Keeps a collection in sync with the backend: one REST load once the
+ * WebSocket is up, then server-pushed deltas. Events that arrive while a
+ * load is in flight are replayed on top of its result.
+ *
+ * @param topic "alerts" | "camps" | "actions"
+ * @param load  stable function returning an axios promise of the full list
+ * @param scope optional { mission: alertId } or { tile: "zoom/x/y" }: receive
+ *              only that mission's / tile's changes (load should match)
+ */
+export default function useLiveCollection(topic, load, scope) {
+  const [items, setItems] = useState([]);
+  const [loading, setLoading] = useState(true);
+  const [error, setError] = useState(null);
+  const pending = useRef(null); // events buffered during a load
+  const scopeKey = scope ? JSON.stringify(scope) : null; // stable across renders
+
+  const reload = useCallback(async () => {
+    pending.current = pending.current || [];
+    try {
+      const res = await load();
+      const loaded = (res.data || []).map(normalize);
+      setItems(pending.current.reduce(applyChange, loaded));
+      setError(null);
+    } catch (err) {
+      console.error(`Failed to load ${topic}`, err);
+      setError(err);
+    } finally {
+      pending.current = null;
+      setLoading(false);
+    }
+  }, [topic, load]);
+
+  useEffect(() => {
+    let pollTimer = null;
+    const stopPolling = () => {
+      clearInterval(pollTimer);
+      pollTimer = null;
+    };
+
+    const onChange = (event) => {
+      if (event.type === "RESET") {
+        reload();
+      } else if (pending.current) {
+        pending.current.push(event);
+      } else {
+        setItems(prev => applyChange(prev, event));
+      }
+    };
+    const unsubscribeChanges = scopeKey
+      ? websocketService.subscribeToScope(JSON.parse(scopeKey), topic, onChange)
+      : SUBSCRIBE[topic](onChange);
+
+    const unsubscribeStatus = websocketService.subscribeToStatus((status) => {
+      if (status === "connected") {
+        stopPolling();
+      } else if (!pollTimer) {
+        pollTimer = setInterval(reload, FALLBACK_POLL_MS);
+      }
+    });
+
+    websocketService.connect(reload, () => {
+      reload();
+      if (!pollTimer) pollTimer = setInterval(reload, FALLBACK_POLL_MS);
+    });
+
+    return () => {
+      unsubscribeChanges();
+      unsubscribeStatus();
+      stopPolling();
+    };
+  }, [topic, scopeKey, reload]);
+
+  return { items, setItems, loading, error, reload };
+}
@@ -1,6 +1,55 @@
 // WebSocket Service for real-time updates using STOMP over SockJS
-import { Client } from '@stomp/stompjs';
+//
+// /topic/camps, /topic/alerts and /topic/actions carry sequenced change
+// events ({ seq, epoch, entity, type, id, changes, payload }). The service
+// tracks the last applied seq per epoch (one epoch per backend node/process,
+// several when the broker relays between nodes); on a gap or reconnect it
+// replays missed events from GET /api/changes?since=, and tells subscribers
+// to reload ({ type: "RESET" }) when that is no longer possible.
+//
+// Scoped topics (/topic/missions/{alertId}/{topic}, /topic/tiles/{z}/{x}/{y}/{topic})
+// carry the same events filtered to one mission or map tile. Their seqs have
+// gaps by design, so they are only de-duplicated, and resumed on reconnect
+// with the matching mission/tile filter.
+//
+// /topic/coordination messages carry a log sequence (unique across backend
+// nodes, but not always delivered in order); on every connect the messages
+// from a little before the highest applied one (the whole log on a fresh
+// page) are fetched from GET /api/coordination/messages. Live messages
+// arriving during that catch-up are held back and applied after it, in
+// sequence order. Messages are de-duplicated by sequence.
 import SockJS from 'sockjs-client';
+import { Stomp } from 'stompjs/lib/stomp.js';
+import api from './api';
+
+// Coordination catch-up restarts this many sequences back, for messages another
+// node stored after a higher number was already seen
+const COORDINATION_RESUME_OVERLAP = 50;
+
+// Applied coordination sequences remembered for de-duplication
+const COORDINATION_SEEN_LIMIT = 1000;
+
+const CHANGE_TOPICS = {
+  alert: 'alerts',
+  camp: 'camps',
+  action: 'actions',
+};
+
+// Must match idro.realtime.tile-zoom on the backend
+export const TILE_ZOOM = 8;
+
+// Web Mercator tile "zoom/x/y" containing a coordinate (same formula as the backend GeoTile)
+export const tileOf = (lat, lon, zoom = TILE_ZOOM) => {
+  const n = 2 ** zoom;
+  const rad = (Math.max(-85.05112878, Math.min(85.05112878, lat)) * Math.PI) / 180;
+  const clamp = (v) => Math.max(0, Math.min(n - 1, v));
+  const x = clamp(Math.floor(((lon + 180) / 360) * n));
+  const y = clamp(Math.floor(((1 - Math.log(Math.tan(rad) + 1 / Math.cos(rad)) / Math.PI) / 2) * n));
+  return `${zoom}/${x}/${y}`;
+};
+
+const scopeDestination = (scope, topic) =>
+  scope.mission ? `/topic/missions/${scope.mission}/${topic}` : `/topic/tiles/${scope.tile}/${topic}`;
 
 class WebSocketService {
   constructor() {
@@ -10,11 +59,24 @@ class WebSocketService {
       camps: [],
       coordination: [],
       actions: [],
+      status: [],
     };
+    this.pendingCallbacks = [];
     this.reconnectAttempts = 0;
     this.maxReconnectAttempts = 5;
     this.reconnectDelay = 3000;
     this.isConnecting = false;
+
+    // Change stream position: epoch -> last applied seq
+    this.positions = {};
+    this.resuming = {};
+    this.coordinationSeq = null; // highest applied
+    this.coordinationSeen = new Set();
+    this.coordinationCatchingUp = false;
+    this.coordinationBuffer = [];
+
+    // Scoped subscriptions: destination -> { scope, callbacks, subscription, positions }
+    this.scopes = {};
   }
 
   connect(onConnect, onError) {
@@ -24,6 +86,9 @@ class WebSocketService {
       return;
     }
 
+    // Every caller is answered once the (shared) connection succeeds or gives up
+    if (onConnect || onError) this.pendingCallbacks.push({ onConnect, onError });
+
     if (this.isConnecting) {
       console.log('WebSocket connection already in progress');
       return;
@@ -34,104 +99,227 @@ class WebSocketService {
 
     try {
       const socket = new SockJS(wsUrl);
-      this.stompClient = new Client({
-        webSocketFactory: () => socket,
-        connectHeaders: {},
-        debug: (str) => {
-          console.log('STOMP: ' + str);
+      this.stompClient = Stomp.over(socket);
+      this.stompClient.debug = null;
+      this.stompClient.heartbeat.incoming = 4000;
+      this.stompClient.heartbeat.outgoing = 4000;
+
+      this.stompClient.connect(
+        {},
+        () => {
+          console.log('✅ STOMP connected');
+          this.reconnectAttempts = 0;
+          this.isConnecting = false;
+
+          // Subscribe to topics
+          this.subscribeToTopics();
+
+          // Catch up on anything missed while disconnected
+          Object.keys(this.positions).forEach((epoch) => this.resume(epoch));
+          this.resumeCoordination();
+          Object.keys(this.scopes).forEach((destination) => this.resumeScope(destination));
+
+          this.notifySubscribers('status', 'connected');
+          this.flushPendingCallbacks((callbacks) => callbacks.onConnect && callbacks.onConnect());
         },
-        reconnectDelay: 5000,
-        heartbeatIncoming: 4000,
-        heartbeatOutgoing: 4000,
-      });
+        (error) => {
+          console.log('🔌 WebSocket disconnected', error);
+          this.isConnecting = false;
 
-      this.stompClient.onConnect = (frame) => {
-        console.log('✅ STOMP connected');
-        this.reconnectAttempts = 0;
-        this.isConnecting = false;
-
-        // Subscribe to topics
-        this.subscribeToTopics();
-
-        if (onConnect) onConnect();
-      };
-
-      this.stompClient.onStompError = (frame) => {
-        console.error('❌ STOMP error:', frame.headers['message']);
-        this.isConnecting = false;
-        if (onError) onError(new Error(frame.headers['message']));
-      };
-
-      this.stompClient.onWebSocketClose = () => {
-        console.log('🔌 WebSocket disconnected');
-        this.isConnecting = false;
-
-        // Attempt to reconnect
-        if (this.reconnectAttempts < this.maxReconnectAttempts) {
-          this.reconnectAttempts++;
-          console.log(`Attempting to reconnect (${this.reconnectAttempts}/${this.maxReconnectAttempts})...`);
-          setTimeout(() => {
-            this.connect(onConnect, onError);
-          }, this.reconnectDelay);
-        } else {
-          console.log('Max reconnection attempts reached');
-          if (onError) onError(new Error('WebSocket connection failed'));
+          // Attempt to reconnect
+          if (this.reconnectAttempts < this.maxReconnectAttempts) {
+            this.reconnectAttempts++;
+            console.log(`Attempting to reconnect (${this.reconnectAttempts}/${this.maxReconnectAttempts})...`);
+            setTimeout(() => {
+              this.connect();
+            }, this.reconnectDelay);
+          } else {
+            console.log('Max reconnection attempts reached');
+            const failure = new Error('WebSocket connection failed');
+            this.notifySubscribers('status', 'failed');
+            this.flushPendingCallbacks((callbacks) => callbacks.onError && callbacks.onError(failure));
+          }
         }
-      };
-
-      this.stompClient.activate();
+      );
     } catch (error) {
       console.error('Error creating WebSocket:', error);
       this.isConnecting = false;
-      if (onError) onError(error);
+      this.notifySubscribers('status', 'failed');
+      this.flushPendingCallbacks((callbacks) => callbacks.onError && callbacks.onError(error));
     }
   }
 
+  flushPendingCallbacks(invoke) {
+    const callbacks = this.pendingCallbacks;
+    this.pendingCallbacks = [];
+    callbacks.forEach(invoke);
+  }
+
   subscribeToTopics() {
     if (!this.stompClient || !this.stompClient.connected) return;
 
-    // Subscribe to alerts
-    this.stompClient.subscribe('/topic/alerts', (message) => {
-      try {
-        const data = JSON.parse(message.body);
-        this.notifySubscribers('alerts', data);
-      } catch (error) {
-        console.error('Error parsing alerts message:', error);
-      }
-    });
-
     // Subscribe to coordination messages
     this.stompClient.subscribe('/topic/coordination', (message) => {
       try {
-        const data = JSON.parse(message.body);
-        this.notifySubscribers('coordination', data);
+        this.handleCoordination(JSON.parse(message.body));
       } catch (error) {
         console.error('Error parsing coordination message:', error);
       }
     });
 
-    // Subscribe to camp updates
-    this.stompClient.subscribe('/topic/camps', (message) => {
+    // Subscribe to alert, camp and action change events
+    Object.values(CHANGE_TOPICS).forEach((topic) => {
+      this.stompClient.subscribe(`/topic/${topic}`, (message) => {
+        try {
+          this.handleChange(JSON.parse(message.body));
+        } catch (error) {
+          console.error(`Error parsing ${topic} message:`, error);
+        }
+      });
+    });
+
+    Object.keys(this.scopes).forEach((destination) => this.subscribeScopeTopic(destination));
+  }
+
+  subscribeScopeTopic(destination) {
+    const entry = this.scopes[destination];
+    if (!entry || !this.stompClient || !this.stompClient.connected) return;
+    entry.subscription = this.stompClient.subscribe(destination, (message) => {
       try {
-        const data = JSON.parse(message.body);
-        this.notifySubscribers('camps', data);
+        this.handleScopedChange(entry, JSON.parse(message.body));
       } catch (error) {
-        console.error('Error parsing camps message:', error);
+        console.error(`Error parsing ${destination} message:`, error);
       }
     });
+  }
+
+  handleScopedChange(entry, event) {
+    const lastSeq = entry.positions[event.epoch];
+    if (lastSeq !== undefined && event.seq <= lastSeq) return; // already applied
+    entry.positions[event.epoch] = event.seq;
+    entry.callbacks.forEach((callback) => callback(event));
+  }
 
-    // Subscribe to actions
-    this.stompClient.subscribe('/topic/actions', (message) => {
+  // Replay events of one scope missed while disconnected
+  async resumeScope(destination) {
+    const entry = this.scopes[destination];
+    if (!entry) return;
+    for (const epoch of Object.keys(entry.positions)) {
       try {
-        const data = JSON.parse(message.body);
-        this.notifySubscribers('actions', data);
+        const res = await api.get('/changes', { params: { since: entry.positions[epoch], epoch, ...entry.scope } });
+        const feed = res.data;
+        if (feed.resetRequired) {
+          delete entry.positions[epoch];
+          entry.callbacks.forEach((callback) => callback({ type: 'RESET' }));
+          return;
+        }
+        feed.events.forEach((event) => this.handleScopedChange(entry, event));
       } catch (error) {
-        console.error('Error parsing actions message:', error);
+        console.error(`Error resuming ${destination}:`, error);
       }
-    });
+    }
+  }
+
+  // Apply a change event in sequence order, resuming over gaps
+  handleChange(event) {
+    const lastSeq = this.positions[event.epoch];
+
+    if (lastSeq === undefined) {
+      // First event from this node/process: start from here
+      this.positions[event.epoch] = event.seq;
+      this.dispatchChange(event);
+      return;
+    }
+
+    if (event.seq <= lastSeq) return; // already applied (e.g. via resume)
+
+    if (event.seq > lastSeq + 1) {
+      this.resume(event.epoch);
+      return;
+    }
+
+    this.positions[event.epoch] = event.seq;
+    this.dispatchChange(event);
+  }
+
+  // Replay events missed from one epoch; reload if the serving node cannot
+  async resume(epoch) {
+    if (this.resuming[epoch]) return;
+    this.resuming[epoch] = true;
+    try {
+      const res = await api.get('/changes', { params: { since: this.positions[epoch], epoch } });
+      const feed = res.data;
+      if (feed.resetRequired) {
+        delete this.positions[epoch];
+        this.positions[feed.epoch] = feed.latestSeq;
+        this.notifyReset();
+        return;
+      }
+      feed.events.forEach((event) => {
+        if (event.seq > this.positions[epoch]) {
+          this.positions[epoch] = event.seq;
+          this.dispatchChange(event);
+        }
+      });
+    } catch (error) {
+      console.error('Error resuming change feed:', error);
+    } finally {
+      this.resuming[epoch] = false;
+    }
+  }
+
+  handleCoordination(message) {
+    if (this.coordinationCatchingUp) {
+      this.coordinationBuffer.push(message);
+      return;
+    }
+    this.applyCoordination(message);
+  }
+
+  applyCoordination(message) {
+    if (message.sequence != null) {
+      if (this.coordinationSeen.has(message.sequence)) return;
+      this.coordinationSeen.add(message.sequence);
+      if (this.coordinationSeen.size > COORDINATION_SEEN_LIMIT) {
+        this.coordinationSeen.delete(this.coordinationSeen.values().next().value);
+      }
+      this.coordinationSeq = Math.max(this.coordinationSeq ?? 0, message.sequence);
+    }
+    this.notifySubscribers('coordination', message);
+  }
+
+  // Fetch coordination messages broadcast while disconnected (or before this page loaded)
+  async resumeCoordination() {
+    if (this.coordinationCatchingUp) return;
+    this.coordinationCatchingUp = true;
+    try {
+      let since = Math.max(0, (this.coordinationSeq ?? 0) - COORDINATION_RESUME_OVERLAP);
+      while (since != null) {
+        const res = await api.get('/coordination/messages', { params: { since } });
+        res.data.content.forEach((message) => this.applyCoordination(message));
+        since = res.data.nextCursor;
+      }
+    } catch (error) {
+      console.error('Error loading missed coordination messages:', error);
+    } finally {
+      // Live messages held back during the catch-up; already applied ones are skipped
+      const buffered = this.coordinationBuffer;
+      this.coordinationBuffer = [];
+      this.coordinationCatchingUp = false;
+      buffered
+        .sort((a, b) => (a.sequence ?? 0) - (b.sequence ?? 0))
+        .forEach((message) => this.applyCoordination(message));
+    }
+  }
+
+  dispatchChange(event) {
+    const topic = CHANGE_TOPICS[event.entity];
+    if (topic) this.notifySubscribers(topic, event);
   }
 
-  // handleMessage is no longer needed as messages are handled in subscribeToTopics
+  notifyReset() {
+    Object.values(CHANGE_TOPICS).forEach((topic) => this.notifySubscribers(topic, { type: 'RESET' }));
+  }
 
   notifySubscribers(topic, data) {
     if (this.subscribers[topic]) {
@@ -165,6 +353,36 @@ class WebSocketService {
     return () => this.unsubscribe('actions', callback);
   }
 
+  /**
+   * Change events of one mission or map tile only.
+   * @param scope { mission: alertId } or { tile: "zoom/x/y" } (see tileOf)
+   * @param topic "camps" | "alerts" | "actions" (actions: mission scope only)
+   */
+  subscribeToScope(scope, topic, callback) {
+    const destination = scopeDestination(scope, topic);
+    let entry = this.scopes[destination];
+    if (!entry) {
+      entry = { scope, callbacks: [], subscription: null, positions: {} };
+      this.scopes[destination] = entry;
+      this.subscribeScopeTopic(destination);
+    }
+    entry.callbacks.push(callback);
+
+    return () => {
+      entry.callbacks = entry.callbacks.filter(cb => cb !== callback);
+      if (entry.callbacks.length === 0) {
+        if (entry.subscription && this.isConnected()) entry.subscription.unsubscribe();
+        delete this.scopes[destination];
+      }
+    };
+  }
+
+  // Connection status: 'connected' (including reconnects) or 'failed' (gave up)
+  subscribeToStatus(callback) {
+    this.subscribers.status.push(callback);
+    return () => this.unsubscribe('status', callback);
+  }
+
   unsubscribe(topic, callback) {
     if (this.subscribers[topic]) {
       this.subscribers[topic] = this.subscribers[topic].filter(cb => cb !== callback);
@@ -174,10 +392,7 @@ class WebSocketService {
   send(message) {
     if (this.stompClient && this.stompClient.connected) {
       // Send to the coordination endpoint
-      this.stompClient.publish({
-        destination: '/app/coordination',
-        body: JSON.stringify(message)
-      });
+      this.stompClient.send('/app/coordination', {}, JSON.stringify(message));
     } else {
       console.warn('WebSocket is not connected. Message not sent:', message);
     }
@@ -186,13 +401,14 @@ class WebSocketService {
   disconnect() {
     if (this.stompClient) {
       this.reconnectAttempts = this.maxReconnectAttempts; // Prevent auto-reconnect
-      this.stompClient.deactivate();
+      if (this.stompClient.connected) this.stompClient.disconnect();
       this.stompClient = null;
     }
     // Clear all subscribers
     Object.keys(this.subscribers).forEach(key => {
       this.subscribers[key] = [];
     });
+    this.scopes = {};
   }
 
   isConnected() {
@@ -201,4 +417,4 @@ class WebSocketService {
 }
 
 const websocketService = new WebSocketService();
-export default websocketService;
\ No newline at end of file
+export default websocketService;